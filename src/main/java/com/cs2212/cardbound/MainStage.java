@@ -1,6 +1,8 @@
 package com.cs2212.cardbound;
 
+import com.cs2212.cardbound.gameplay.CardCatalog;
 import com.cs2212.cardbound.system.MainMenu;
+import com.cs2212.cardbound.system.SaveWorker;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -41,9 +43,17 @@ public class MainStage extends Application {
         stage.setTitle("CARDBOUND");
         stage.setScene(scene);
         stage.show();
+        // Read the card data once up front so that no level has to touch the file
+        CardCatalog.getInstance();
         MainMenu.loadGame();
     }
 
+    @Override
+    public void stop() {
+        // Finish writing any saves before the application closes
+        SaveWorker.flush();
+    }
+
     public static void main(String[] args) {
         launch();
     }
@@ -1,6 +1,7 @@
 package com.cs2212.cardbound;
 
 import com.cs2212.cardbound.system.MainMenu;
+import com.cs2212.cardbound.system.SaveWorker;
 import javafx.animation.FadeTransition;
 import javafx.animation.PauseTransition;
 import javafx.animation.SequentialTransition;
@@ -149,9 +150,10 @@ public class SceneTools {
     }
 
     /**
-     * Exits the application upon being called.
+     * Exits the application upon being called, after any saves still being written have finished.
      */
     public static void exitApplication() {
+        SaveWorker.flush();
         Platform.exit();
         System.exit(0);
     }
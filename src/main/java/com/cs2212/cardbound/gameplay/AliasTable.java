@@ -0,0 +1,102 @@
+package com.cs2212.cardbound.gameplay;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Draws indices with given weights in constant time using Vose's alias method.
+ * <br><br>
+ * The table is built once in linear time. Every draw afterwards takes one random index and one random fraction, no
+ * matter how many entries the table has, and allocates nothing.
+ * @version 1.0
+ */
+public final class AliasTable {
+
+    /**
+     * The chance of keeping each index when it is picked, instead of taking its alias
+     */
+    private final double[] probability;
+    /**
+     * The index each entry falls back to
+     */
+    private final int[] alias;
+
+    /**
+     * Builds a table from a list of weights.
+     * @param weights the weight of each index, which must not be negative
+     * @throws IllegalArgumentException if there are no weights, a weight is negative, or every weight is 0
+     */
+    public AliasTable(double[] weights) {
+        int n = weights.length;
+        if (n == 0)
+            throw new IllegalArgumentException("An alias table needs at least one weight");
+
+        double total = 0;
+        for (double weight : weights) {
+            if (weight < 0 || Double.isNaN(weight) || Double.isInfinite(weight))
+                throw new IllegalArgumentException("Weights must be finite and not negative");
+            total += weight;
+        }
+        if (total <= 0)
+            throw new IllegalArgumentException("At least one weight must be greater than 0");
+
+        probability = new double[n];
+        alias = new int[n];
+
+        // Scale the weights so that they average 1, then split them into entries below and above the average
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1)
+                small[smallCount++] = i;
+            else
+                large[largeCount++] = i;
+        }
+
+        // Fill each small entry with part of a large entry
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1;
+            if (scaled[more] < 1)
+                small[smallCount++] = more;
+            else
+                large[largeCount++] = more;
+        }
+
+        // Whatever is left over is full, up to rounding error
+        while (largeCount > 0) {
+            int index = large[--largeCount];
+            probability[index] = 1;
+            alias[index] = index;
+        }
+        while (smallCount > 0) {
+            int index = small[--smallCount];
+            probability[index] = 1;
+            alias[index] = index;
+        }
+    }
+
+    /**
+     * Gets the number of indices in the table
+     * @return the number of weights the table was built from
+     */
+    public int size() {
+        return probability.length;
+    }
+
+    /**
+     * Draws an index with a chance proportional to its weight
+     * @param random the random number generator to draw with
+     * @return the drawn index
+     */
+    public int sample(RandomGenerator random) {
+        int index = random.nextInt(probability.length);
+        return random.nextDouble() < probability[index] ? index : alias[index];
+    }
+}
@@ -37,9 +37,10 @@ public class Card extends Pane {
      * Whether this is a permanent card
      */
     private boolean isPermanent = false;
-
-    private int attackDamage;
-    private double attackModifier;
+    /**
+     * The dealt card this pane is displaying
+     */
+    private CardInstance instance;
 
     /**
      * The initial Y position of this card
@@ -77,6 +78,10 @@ public class Card extends Pane {
      * The color of the card border when it is selected
      */
     private final Color selectedColor = new Color(1.0f, 228f / 255f, 120f / 255f, 1);
+    /**
+     * The glow around the card when it is part of the hint
+     */
+    private final DropShadow hintGlow = new DropShadow(30, Color.DEEPSKYBLUE);
 
     @FXML
     private Rectangle cardBorder;
@@ -93,14 +98,6 @@ public class Card extends Pane {
     @FXML
     private Pane cardSelection;
 
-    private int attackDmg;
-
-    private int numAttacks;
-
-    private String cardEffect;
-
-    private int numAttacksAffected;
-
     /**
      * Constructor for creating a new Card object. Because it is a JavaFX object, it MUST have a constructor with no arguments.
      */
@@ -279,14 +276,40 @@ public class Card extends Pane {
             typeIcon.setImage(new Image(Objects.requireNonNull(MainStage.class.getResourceAsStream("sprites/error.png"))));
     }
 
-    public int getAttackDamage(){ return attackDmg; }
-    public void setAttackDmg(int attackDmg){ this.attackDmg = attackDmg; }
-    public int getNumAttacks(){ return numAttacks; }
-    public void setNumAttacks(int numAttacks){ this.numAttacks = numAttacks; }
-    public String getCardEffect(){ return cardEffect;}
-    public void setCardEffect(String equation){ this.cardEffect = equation; }
-    public int getNumAttacksAffected(){ return numAttacksAffected; }
-    public void setNumAttacksAffected(int numAttacksAffected){ this.numAttacksAffected = numAttacksAffected; }
+    /**
+     * Gets the dealt card this pane is displaying
+     * @return the card instance
+     */
+    public CardInstance getInstance() {
+        return instance;
+    }
+
+    /**
+     * Displays a dealt card on a card pane and moves the pane into position. Kept with the pane rather than in
+     * {@link CardLogic}, so that the card logic never needs JavaFX
+     * @param card the card pane to be initialized
+     * @param instance the dealt card to display
+     * @param locationX location of the card on the X-axis
+     * @param locationY location of the card on the Y-axis
+     */
+    public static void buildCard(Card card, CardInstance instance, int locationX, int locationY) {
+        card.setInstance(instance);
+        card.setLayoutX(locationX);
+        card.setLayoutY(locationY);
+    }
+
+    /**
+     * Displays a dealt card on this pane
+     * @param instance the card instance to display
+     */
+    public void setInstance(CardInstance instance) {
+        this.instance = instance;
+        setTitle(instance.getTitle());
+        setDescription(instance.getDescription());
+        setType(instance.getType());
+        setImage(new Image(Objects.requireNonNull(MainStage.class.getResourceAsStream("sprites/card/" + instance.getSpec().getImageFile()))));
+        cardImage.setPreserveRatio(false);
+    }
 
     /**
      * Whether this card is selected
@@ -315,6 +338,23 @@ public class Card extends Pane {
         cardDiv.setStroke(Color.GOLD);
     }
 
+    /**
+     * Shows or hides the hint glow around this card. The glow is chained in front of any effect the card already has,
+     * and that effect is put back when the glow is hidden.
+     * @param hinted true to show the glow, false to hide it
+     */
+    public void setHinted(boolean hinted) {
+        boolean showing = this.getEffect() == hintGlow;
+        if (hinted && !showing) {
+            hintGlow.setSpread(0.4);
+            hintGlow.setInput(this.getEffect());
+            this.setEffect(hintGlow);
+        } else if (!hinted && showing) {
+            this.setEffect(hintGlow.getInput());
+            hintGlow.setInput(null);
+        }
+    }
+
     /**
      * Handles effects for when this card is hovered
      */
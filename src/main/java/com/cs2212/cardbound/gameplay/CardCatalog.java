@@ -0,0 +1,233 @@
+package com.cs2212.cardbound.gameplay;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * The catalog of every card in the game.
+ * <br><br>
+ * CardData.CSV is read a single time, the first time the catalog is used, into a dense array of {@link CardSpec}s
+ * indexed by card id. A card's id is its line number in the file, starting from 1, which matches the indices produced by
+ * {@link CardLogic#generateCardIndexList(int[], CardPool, java.util.random.RandomGenerator)}. Looking up a card never touches the file again.
+ * @version 1.0
+ */
+public final class CardCatalog {
+
+    /**
+     * The name of the card data resource
+     */
+    private static final String CARD_DATA_FILE = "/com/cs2212/cardbound/CardData.CSV";
+
+    /**
+     * Every card, where the card with id n is stored at index n - 1
+     */
+    private final CardSpec[] cards;
+    /**
+     * The version of the card data the catalog was read from, which is the CRC32 of the card data in hex. Game saves
+     * store it next to their card ids.
+     */
+    private final String version;
+    /**
+     * Cards by their title, used to look up cards stored in older game saves
+     */
+    private final Map<String, CardSpec> cardsByTitle;
+    /**
+     * The card pools of each rarity tier, built the first time a hand is drawn in that tier
+     */
+    private final AtomicReferenceArray<CardPool> pools = new AtomicReferenceArray<>(RarityProfile.MAX_TIER + 1);
+
+    /**
+     * Holder for the game's catalog, so that it is loaded lazily and exactly once
+     */
+    private static final class Holder {
+        private static final CardCatalog INSTANCE = loadDefault();
+    }
+
+    /**
+     * Creates a catalog from already parsed cards.
+     * @param cards the cards, ordered by id starting from 1
+     * @param version the version of the card data
+     */
+    private CardCatalog(CardSpec[] cards, String version) {
+        this.cards = cards;
+        this.version = version;
+        this.cardsByTitle = new HashMap<>(cards.length * 2);
+        for (CardSpec card : cards)
+            cardsByTitle.putIfAbsent(card.getTitle(), card);
+    }
+
+    /**
+     * Gets the game's card catalog, loading it from CardData.CSV if it has not been loaded yet.
+     * @return the card catalog
+     */
+    public static CardCatalog getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Loads the catalog bundled with the game.
+     * @return the loaded catalog
+     */
+    private static CardCatalog loadDefault() {
+        try (InputStream in = Objects.requireNonNull(CardCatalog.class.getResourceAsStream(CARD_DATA_FILE), CARD_DATA_FILE + " is missing")) {
+            return load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read " + CARD_DATA_FILE, e);
+        }
+    }
+
+    /**
+     * Reads a catalog from card data in the same format as CardData.CSV. Each non-empty line is one card.
+     * @param in the card data
+     * @return the loaded catalog
+     * @throws IOException if the card data cannot be read
+     * @throws IllegalArgumentException if a line of card data is invalid
+     */
+    public static CardCatalog load(InputStream in) throws IOException {
+        List<CardSpec> cards = new ArrayList<>();
+        CheckedInputStream checked = new CheckedInputStream(in, new CRC32());
+        BufferedReader reader = new BufferedReader(new InputStreamReader(checked, StandardCharsets.UTF_8));
+
+        String curLine;
+        while ((curLine = reader.readLine()) != null) {
+            if (curLine.isBlank())
+                continue;
+
+            String[] curLineData = curLine.split(",");
+            for (int i = 0; i < curLineData.length; i++)
+                curLineData[i] = curLineData[i].trim();
+
+            cards.add(new CardSpec(cards.size() + 1, curLineData));
+        }
+
+        return new CardCatalog(cards.toArray(new CardSpec[0]), Long.toHexString(checked.getChecksum().getValue()));
+    }
+
+    /**
+     * Gets the version of the card data the catalog was read from. It changes whenever the card data does.
+     * @return the CRC32 of the card data, in hex
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the number of cards in the catalog. Valid ids range from 1 to this value.
+     * @return the number of cards
+     */
+    public int size() {
+        return cards.length;
+    }
+
+    /**
+     * Gets a card by its id
+     * @param id the card id, from 1 to {@link #size()}
+     * @return the card
+     * @throws IndexOutOfBoundsException if there is no card with this id
+     */
+    public CardSpec get(int id) {
+        return cards[id - 1];
+    }
+
+    /**
+     * Gets several cards by their ids. Duplicate ids give the same card more than once.
+     * @param ids the card ids
+     * @return the cards, in the same order as the ids
+     */
+    public CardSpec[] get(int[] ids) {
+        CardSpec[] result = new CardSpec[ids.length];
+        for (int i = 0; i < ids.length; i++)
+            result[i] = get(ids[i]);
+        return result;
+    }
+
+    /**
+     * Gets the card pools to draw a level's hand from, building them if no hand has been drawn in the level's tier yet.
+     * @param level the level, starting from 1
+     * @return the card pools for the level
+     */
+    public CardPool getPool(int level) {
+        int tier = RarityProfile.tierOf(level);
+        CardPool pool = pools.get(tier);
+        if (pool == null) {
+            // Two threads may build the same tier at once, but they build identical pools so either one can be kept
+            pools.compareAndSet(tier, null, new CardPool(this, RarityProfile.forTier(tier)));
+            pool = pools.get(tier);
+        }
+        return pool;
+    }
+
+    /**
+     * Gets the raw card data of several cards, in the same layout that game saves store them in.
+     * @param ids the card ids
+     * @return an array holding each card's data, in the same order as the ids
+     */
+    public String[][] getCardData(int[] ids) {
+        String[][] cardDataList = new String[ids.length][];
+        for (int i = 0; i < ids.length; i++)
+            cardDataList[i] = get(ids[i]).getCardData();
+        return cardDataList;
+    }
+
+    /**
+     * Gets the ids of several cards from their raw card data, such as a hand stored in an older game save. Cards are
+     * matched by title, the same way {@link #resolve(String[])} matches them.
+     * @param cardDataList the raw data of each card
+     * @return the card ids, in the same order as the card data, or null if any card is no longer in the catalog
+     */
+    public int[] getCardIds(String[][] cardDataList) {
+        int[] ids = new int[cardDataList.length];
+        for (int i = 0; i < cardDataList.length; i++) {
+            CardSpec card = cardDataList[i] != null && cardDataList[i].length > 0 ? findByTitle(cardDataList[i][0]) : null;
+            if (card == null)
+                return null;
+            ids[i] = card.getId();
+        }
+        return ids;
+    }
+
+    /**
+     * Finds a card by its title
+     * @param title the card title
+     * @return the card, or null if no card has this title
+     */
+    public CardSpec findByTitle(String title) {
+        return cardsByTitle.get(title);
+    }
+
+    /**
+     * Resolves raw card data, such as a card stored in a game save, to a card definition. Cards are matched by title,
+     * and cards that are no longer in the catalog are kept as they were saved with an id of 0.
+     * @param cardData the raw card data
+     * @return the matching card from the catalog, or a standalone card built from the data
+     */
+    public CardSpec resolve(String[] cardData) {
+        CardSpec card = findByTitle(cardData[0]);
+        return card != null ? card : new CardSpec(0, cardData);
+    }
+
+    /**
+     * Deals a hand of cards from raw card data at the given card multiplier.
+     * @param cardDataList the raw data of each card in the hand
+     * @param cardMultiplier the card multiplier of the current level
+     * @return the dealt cards, in the same order as the card data
+     */
+    public CardInstance[] deal(String[][] cardDataList, int cardMultiplier) {
+        CardInstance[] hand = new CardInstance[cardDataList.length];
+        for (int i = 0; i < cardDataList.length; i++)
+            hand[i] = new CardInstance(resolve(cardDataList[i]), cardMultiplier);
+        return hand;
+    }
+}
@@ -0,0 +1,147 @@
+package com.cs2212.cardbound.gameplay;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The compiled form of a modifier card's effect equation, such as "x%3+x" or "1.5*x".
+ * <br><br>
+ * Equations are parsed a single time into flat arrays of operands and operators, so applying an effect to an attack
+ * value does no string work and allocates nothing. As with the original card math, the equation is evaluated strictly
+ * from left to right with no operator precedence, "x" refers to the attack value of the damage card, and modulo is
+ * performed on whole numbers. An equation with no operator gives 0, as it always has.
+ * @version 1.0
+ */
+public final class CardEffect {
+
+    /**
+     * The character in an equation that refers to the damage card's attack value
+     */
+    private static final String VARIABLE = "x";
+    /**
+     * Every equation compiled so far, so that each distinct equation is only ever parsed once
+     */
+    private static final Map<String, CardEffect> compiledEffects = new ConcurrentHashMap<>();
+
+    /**
+     * The equation this effect was compiled from
+     */
+    private final String equation;
+    /**
+     * The constant value of each operand, unused for operands that are the variable
+     */
+    private final float[] constants;
+    /**
+     * Whether each operand is the variable "x"
+     */
+    private final boolean[] isVariable;
+    /**
+     * The operators between each pair of operands, from left to right
+     */
+    private final char[] operators;
+
+    /**
+     * Compiles a modifier equation, or returns the already compiled effect if this equation has been seen before.
+     * @param equation the modifier equation read from the card data
+     * @return the compiled effect
+     * @throws IllegalArgumentException if the equation is not made up of numbers, "x", "+", "*" and "%"
+     */
+    public static CardEffect compile(String equation) {
+        return compiledEffects.computeIfAbsent(equation, CardEffect::new);
+    }
+
+    /**
+     * Parses an equation into its operands and operators.
+     * @param equation the modifier equation
+     */
+    private CardEffect(String equation) {
+        this.equation = equation;
+
+        // Count the operators first so that the arrays can be sized exactly
+        int operatorCount = 0;
+        for (int i = 0; i < equation.length(); i++) {
+            if (isOperator(equation.charAt(i)))
+                operatorCount++;
+        }
+
+        constants = new float[operatorCount + 1];
+        isVariable = new boolean[operatorCount + 1];
+        operators = new char[operatorCount];
+
+        // Split the equation on each operator, storing the operand that came before it
+        int operand = 0;
+        int tokenStart = 0;
+        for (int i = 0; i <= equation.length(); i++) {
+            if (i == equation.length() || isOperator(equation.charAt(i))) {
+                parseOperand(equation.substring(tokenStart, i).trim(), operand);
+                if (i < equation.length())
+                    operators[operand] = equation.charAt(i);
+                operand++;
+                tokenStart = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Stores a single operand of the equation.
+     * @param token the text of the operand
+     * @param operand the position of the operand in the equation
+     */
+    private void parseOperand(String token, int operand) {
+        if (token.equals(VARIABLE)) {
+            isVariable[operand] = true;
+            return;
+        }
+        try {
+            constants[operand] = Float.parseFloat(token);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid card effect \"" + equation + "\"", e);
+        }
+    }
+
+    /**
+     * Whether a character is one of the supported operators
+     * @param c the character to check
+     * @return true if it is "+", "*" or "%", false otherwise
+     */
+    private static boolean isOperator(char c) {
+        return c == '+' || c == '*' || c == '%';
+    }
+
+    /**
+     * Applies this effect to an attack value.
+     * @param x the attack value of the damage card
+     * @return the modified attack value
+     */
+    public int apply(int x) {
+        // The original card math only ever totalled the results of operators, so a lone operand never counted
+        if (operators.length == 0)
+            return 0;
+        float total = isVariable[0] ? x : constants[0];
+
+        for (int i = 0; i < operators.length; i++) {
+            float operand = isVariable[i + 1] ? x : constants[i + 1];
+            switch (operators[i]) {
+                case '+' -> total = total + operand;
+                case '*' -> total = total * operand;
+                // Modulo on two floats is not allowed, so cast them accordingly
+                default -> total = (float) ((int) total % (int) operand);
+            }
+        }
+
+        return (int) total;
+    }
+
+    /**
+     * Gets the equation this effect was compiled from
+     * @return the modifier equation
+     */
+    public String getEquation() {
+        return equation;
+    }
+
+    @Override
+    public String toString() {
+        return equation;
+    }
+}
@@ -0,0 +1,144 @@
+package com.cs2212.cardbound.gameplay;
+
+/**
+ * A card as it has been dealt in a level: its {@link CardSpec} together with the card multiplier it was dealt at.
+ * <br><br>
+ * CardInstances are immutable plain values and hold everything the damage calculations need, so cards can be evaluated
+ * without building a scene graph. The {@link Card} pane only displays an instance.
+ * @version 1.0
+ */
+public final class CardInstance {
+
+    /**
+     * The definition of this card
+     */
+    private final CardSpec spec;
+    /**
+     * The card multiplier this card was dealt at
+     */
+    private final int cardMultiplier;
+    /**
+     * The damage of a single hit after the card multiplier has been applied
+     */
+    private final int attackDamage;
+    /**
+     * The damage of a single hit after the card's traits have been applied
+     */
+    private final int hitDamage;
+
+    /**
+     * Deals a card at the given card multiplier.
+     * @param spec the definition of the card
+     * @param cardMultiplier the card multiplier of the current level
+     */
+    public CardInstance(CardSpec spec, int cardMultiplier) {
+        this.spec = spec;
+        this.cardMultiplier = cardMultiplier;
+        this.attackDamage = spec.getAttackDamage() * cardMultiplier;
+        this.hitDamage = spec.getHitDamage(attackDamage);
+    }
+
+    /**
+     * Gets the definition of this card
+     * @return the card spec
+     */
+    public CardSpec getSpec() {
+        return spec;
+    }
+
+    /**
+     * Gets the card multiplier this card was dealt at
+     * @return the card multiplier
+     */
+    public int getCardMultiplier() {
+        return cardMultiplier;
+    }
+
+    /**
+     * Gets the title of this card
+     * @return the card title
+     */
+    public String getTitle() {
+        return spec.getTitle();
+    }
+
+    /**
+     * Gets the description of this card, with the attack damage of attack cards filled in
+     * @return the card description
+     */
+    public String getDescription() {
+        if (spec.isAttack())
+            return spec.getDescription().replace("?", String.valueOf(attackDamage));
+        return spec.getDescription();
+    }
+
+    /**
+     * Gets the type of this card
+     * @return either "attack" or "modifier"
+     */
+    public String getType() {
+        return spec.getType();
+    }
+
+    /**
+     * Whether this is an attack card
+     * @return true if it is an attack card, false otherwise
+     */
+    public boolean isAttack() {
+        return spec.isAttack();
+    }
+
+    /**
+     * Whether this is a modifier card
+     * @return true if it is a modifier card, false otherwise
+     */
+    public boolean isModifier() {
+        return spec.isModifier();
+    }
+
+    /**
+     * Gets the damage of a single hit, including the card multiplier
+     * @return the attack damage
+     */
+    public int getAttackDamage() {
+        return attackDamage;
+    }
+
+    /**
+     * Gets the damage each hit actually deals, which differs from the attack damage for cards with traits such as a hit
+     * ratio
+     * @return the damage of a single hit
+     */
+    public int getHitDamage() {
+        return hitDamage;
+    }
+
+    /**
+     * Gets the number of hits this attack card deals
+     * @return the number of hits
+     */
+    public int getNumAttacks() {
+        return spec.getNumAttacks();
+    }
+
+    /**
+     * Gets the compiled effect of this modifier card
+     * @return the card effect, or null if this is an attack card
+     */
+    public CardEffect getCardEffect() {
+        return spec.getCardEffect();
+    }
+
+    /**
+     * Gets the number of hits this modifier card affects
+     * @return the number of hits affected, or -1 if it affects every hit
+     */
+    public int getNumAttacksAffected() {
+        return spec.getNumAttacksAffected();
+    }
+
+    @Override
+    public String toString() {
+        return spec.getTitle() + " x" + cardMultiplier;
+    }
+}
@@ -0,0 +1,116 @@
+package com.cs2212.cardbound.gameplay;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * The cards a hand is drawn from at one {@link RarityProfile}, split into the attack pool and the modifier pool.
+ * <br><br>
+ * Each pool keeps an {@link AliasTable} of its cards' draw weights, so drawing a card takes constant time and
+ * allocates nothing however large the catalog is.
+ * @see CardCatalog#getPool(int)
+ * @version 1.0
+ */
+public final class CardPool {
+
+    /**
+     * The card pool choice for the attack pool
+     */
+    public static final int ATTACK_POOL = 0;
+    /**
+     * The card pool choice for the modifier pool
+     */
+    public static final int MODIFIER_POOL = 1;
+
+    /**
+     * The profile the pools were weighted with
+     */
+    private final RarityProfile profile;
+    /**
+     * The ids of every attack card, indexed the same as the attack table
+     */
+    private final int[] attackIds;
+    /**
+     * The ids of every modifier card, indexed the same as the modifier table
+     */
+    private final int[] modifierIds;
+    /**
+     * The draw weights of the attack cards
+     */
+    private final AliasTable attackTable;
+    /**
+     * The draw weights of the modifier cards
+     */
+    private final AliasTable modifierTable;
+
+    /**
+     * Builds the pools of a catalog.
+     * @param catalog the cards to draw from
+     * @param profile the profile to weight the cards with
+     * @throws IllegalArgumentException if the catalog has no attack cards or no modifier cards that can be drawn
+     */
+    public CardPool(CardCatalog catalog, RarityProfile profile) {
+        this.profile = profile;
+
+        List<CardSpec> attacks = new ArrayList<>();
+        List<CardSpec> modifiers = new ArrayList<>();
+        for (int id = 1; id <= catalog.size(); id++) {
+            CardSpec card = catalog.get(id);
+            if (card.isAttack())
+                attacks.add(card);
+            else if (card.isModifier())
+                modifiers.add(card);
+        }
+
+        attackIds = ids(attacks);
+        modifierIds = ids(modifiers);
+        attackTable = new AliasTable(weights(attacks, profile));
+        modifierTable = new AliasTable(weights(modifiers, profile));
+    }
+
+    /**
+     * Gets the ids of a list of cards
+     * @param cards the cards
+     * @return the card ids, in the same order
+     */
+    private static int[] ids(List<CardSpec> cards) {
+        int[] ids = new int[cards.size()];
+        for (int i = 0; i < ids.length; i++)
+            ids[i] = cards.get(i).getId();
+        return ids;
+    }
+
+    /**
+     * Gets the draw weights of a list of cards
+     * @param cards the cards
+     * @param profile the profile to weight the cards with
+     * @return the draw weights, in the same order
+     */
+    private static double[] weights(List<CardSpec> cards, RarityProfile profile) {
+        double[] weights = new double[cards.size()];
+        for (int i = 0; i < weights.length; i++)
+            weights[i] = profile.weightOf(cards.get(i));
+        return weights;
+    }
+
+    /**
+     * Gets the profile the pools were weighted with
+     * @return the rarity profile
+     */
+    public RarityProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Draws a card from one of the pools
+     * @param cardPoolChoice {@link #ATTACK_POOL} or {@link #MODIFIER_POOL}
+     * @param random the random number generator to draw with
+     * @return the id of the drawn card
+     */
+    public int draw(int cardPoolChoice, RandomGenerator random) {
+        if (cardPoolChoice == ATTACK_POOL)
+            return attackIds[attackTable.sample(random)];
+        return modifierIds[modifierTable.sample(random)];
+    }
+}
@@ -0,0 +1,64 @@
+package com.cs2212.cardbound.gameplay;
+
+/**
+ * How rare a card is, read from the optional 8th value of a line of card data. Each rarity has a base draw weight that
+ * a card uses unless its card data gives its own weight.
+ * @see RarityProfile
+ * @version 1.0
+ */
+public enum CardRarity {
+
+    /**
+     * Cards that make up most hands
+     */
+    COMMON(100),
+    /**
+     * Cards drawn a little less often than common cards
+     */
+    UNCOMMON(60),
+    /**
+     * Strong cards that are drawn rarely
+     */
+    RARE(30),
+    /**
+     * The strongest cards, which are hardly ever drawn early in a run
+     */
+    LEGENDARY(10);
+
+    /**
+     * The draw weight of a card of this rarity
+     */
+    private final double baseWeight;
+
+    /**
+     * Creates a rarity
+     * @param baseWeight the draw weight of a card of this rarity
+     */
+    CardRarity(double baseWeight) {
+        this.baseWeight = baseWeight;
+    }
+
+    /**
+     * Gets the draw weight of a card of this rarity
+     * @return the base draw weight
+     */
+    public double getBaseWeight() {
+        return baseWeight;
+    }
+
+    /**
+     * Reads a rarity from card data, ignoring case
+     * @param rarity the rarity name, or an empty string for a common card
+     * @return the rarity
+     * @throws IllegalArgumentException if the rarity is unknown
+     */
+    public static CardRarity parse(String rarity) {
+        if (rarity == null || rarity.isBlank())
+            return COMMON;
+        for (CardRarity value : values()) {
+            if (value.name().equalsIgnoreCase(rarity.trim()))
+                return value;
+        }
+        throw new IllegalArgumentException("Unknown rarity \"" + rarity.trim() + "\"");
+    }
+}
@@ -0,0 +1,246 @@
+package com.cs2212.cardbound.gameplay;
+
+/**
+ * The immutable definition of a single card, as read from one line of CardData.CSV.
+ * <br><br>
+ * A CardSpec only holds what the card data says about a card. It has no attachment to the scene graph, so it can be
+ * shared freely between levels and threads.
+ * @see CardCatalog
+ * @version 1.0
+ */
+public final class CardSpec {
+
+    /**
+     * The type name used by attack cards in the card data
+     */
+    public static final String ATTACK = "attack";
+    /**
+     * The type name used by modifier cards in the card data
+     */
+    public static final String MODIFIER = "modifier";
+
+    /**
+     * The card's id, which is its line number in the card data
+     */
+    private final int id;
+    /**
+     * The raw values from the card data, kept so the card can still be written to a game save as before
+     */
+    private final String[] cardData;
+    private final String title;
+    private final String description;
+    private final String type;
+    private final String imageFile;
+    /**
+     * The base damage of a single hit, before the card multiplier is applied. Only used by attack cards.
+     */
+    private final int attackDamage;
+    /**
+     * The number of hits an attack card deals
+     */
+    private final int numAttacks;
+    /**
+     * The compiled effect of a modifier card, or null for attack cards
+     */
+    private final CardEffect cardEffect;
+    /**
+     * The number of hits a modifier card affects, where -1 means every hit
+     */
+    private final int numAttacksAffected;
+    /**
+     * The special rules this card follows when its damage is calculated
+     */
+    private final CardTrait[] traits;
+    /**
+     * How rare this card is
+     */
+    private final CardRarity rarity;
+    /**
+     * How likely this card is to be drawn from its pool, relative to the other cards in the pool
+     */
+    private final double weight;
+
+    /**
+     * Creates a card definition from one line of card data.
+     * @param id the id of the card
+     * @param cardData the trimmed values of the line: title, description, type, image, damage or effect, count, and
+     *                 optionally the card's traits, rarity and draw weight
+     * @throws IllegalArgumentException if the line is missing values or its numbers, traits or rarity cannot be read
+     */
+    public CardSpec(int id, String[] cardData) {
+        if (cardData.length < 6)
+            throw new IllegalArgumentException("Card " + id + " has " + cardData.length + " values, expected 6");
+
+        this.id = id;
+        this.cardData = cardData.clone();
+        this.title = cardData[0];
+        this.description = cardData[1];
+        this.type = cardData[2];
+        this.imageFile = cardData[3];
+
+        try {
+            if (type.equalsIgnoreCase(ATTACK)) {
+                attackDamage = Integer.parseInt(cardData[4]);
+                numAttacks = Integer.parseInt(cardData[5]);
+                cardEffect = null;
+                numAttacksAffected = 0;
+            } else {
+                attackDamage = 0;
+                numAttacks = 0;
+                cardEffect = CardEffect.compile(cardData[4]);
+                numAttacksAffected = Integer.parseInt(cardData[5]);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Card " + id + " (" + title + ") has invalid numbers", e);
+        }
+
+        try {
+            traits = cardData.length > 6 ? CardTrait.parse(cardData[6]) : CardTrait.NONE;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Card " + id + " (" + title + ") has invalid traits", e);
+        }
+
+        try {
+            rarity = cardData.length > 7 ? CardRarity.parse(cardData[7]) : CardRarity.COMMON;
+            weight = cardData.length > 8 && !cardData[8].isBlank() ? Double.parseDouble(cardData[8]) : rarity.getBaseWeight();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Card " + id + " (" + title + ") has an invalid rarity or weight", e);
+        }
+        if (!(weight >= 0) || Double.isInfinite(weight))
+            throw new IllegalArgumentException("Card " + id + " (" + title + ") has a negative weight");
+    }
+
+    /**
+     * Gets the id of this card
+     * @return the card id
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets a copy of the raw card data values for this card
+     * @return the card data, in the same layout as a line of the card data file
+     */
+    public String[] getCardData() {
+        return cardData.clone();
+    }
+
+    /**
+     * Gets the title of this card
+     * @return the card title
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Gets the description of this card. Attack cards use "?" in place of their damage.
+     * @return the card description
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Gets the type of this card
+     * @return either "attack" or "modifier"
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Whether this is an attack card
+     * @return true if it is an attack card, false otherwise
+     */
+    public boolean isAttack() {
+        return type.equalsIgnoreCase(ATTACK);
+    }
+
+    /**
+     * Whether this is a modifier card
+     * @return true if it is a modifier card, false otherwise
+     */
+    public boolean isModifier() {
+        return type.equalsIgnoreCase(MODIFIER);
+    }
+
+    /**
+     * Gets the file name of this card's art, relative to sprites/card
+     * @return the image file name
+     */
+    public String getImageFile() {
+        return imageFile;
+    }
+
+    /**
+     * Gets the base damage of a single hit before the card multiplier is applied
+     * @return the base attack damage
+     */
+    public int getAttackDamage() {
+        return attackDamage;
+    }
+
+    /**
+     * Gets the number of hits this attack card deals
+     * @return the number of hits
+     */
+    public int getNumAttacks() {
+        return numAttacks;
+    }
+
+    /**
+     * Gets the compiled effect of this modifier card
+     * @return the card effect, or null if this is an attack card
+     */
+    public CardEffect getCardEffect() {
+        return cardEffect;
+    }
+
+    /**
+     * Gets the number of hits this modifier card affects
+     * @return the number of hits affected, or -1 if it affects every hit
+     */
+    public int getNumAttacksAffected() {
+        return numAttacksAffected;
+    }
+
+    /**
+     * Gets the special rules this card follows when its damage is calculated
+     * @return a copy of the card's traits, which is empty if it has none
+     */
+    public CardTrait[] getTraits() {
+        return traits.clone();
+    }
+
+    /**
+     * Gets how rare this card is
+     * @return the card rarity
+     */
+    public CardRarity getRarity() {
+        return rarity;
+    }
+
+    /**
+     * Gets how likely this card is to be drawn from its pool, before the current level's rarity profile is applied
+     * @return the draw weight
+     */
+    public double getWeight() {
+        return weight;
+    }
+
+    /**
+     * Gets the damage of a single hit of this attack card after its traits are applied
+     * @param attackDamage the attack damage, including the card multiplier
+     * @return the damage each hit deals
+     */
+    public int getHitDamage(int attackDamage) {
+        return CardTrait.applyToHit(traits, attackDamage);
+    }
+
+    @Override
+    public String toString() {
+        return id + ": " + title;
+    }
+}
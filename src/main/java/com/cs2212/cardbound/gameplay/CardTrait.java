@@ -0,0 +1,148 @@
+package com.cs2212.cardbound.gameplay;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A special rule a card follows when its damage is calculated, read from the optional 7th value of a line of card data.
+ * <br><br>
+ * Traits are written as name=value pairs separated by semicolons, for example {@code hit_ratio=1/4}. Every trait is an
+ * immutable, pure function of the damage it is given, so a card can be evaluated from any thread, and as many times as
+ * needed, without changing the card. The supported traits are:
+ * <ul>
+ *     <li>{@code hit_ratio=n/d} - each hit deals n/d of the card's attack damage, rounded down</li>
+ * </ul>
+ * @version 1.0
+ */
+public final class CardTrait {
+
+    /**
+     * The name of the trait that scales the damage of each hit
+     */
+    public static final String HIT_RATIO = "hit_ratio";
+    /**
+     * The traits of a card with no special rules
+     */
+    public static final CardTrait[] NONE = new CardTrait[0];
+
+    /**
+     * The name of this trait
+     */
+    private final String name;
+    /**
+     * The value of this trait as written in the card data
+     */
+    private final String value;
+    /**
+     * The numerator of the hit ratio
+     */
+    private final int numerator;
+    /**
+     * The denominator of the hit ratio
+     */
+    private final int denominator;
+
+    /**
+     * Creates a trait that scales each hit by a ratio.
+     * @param value the ratio as written in the card data
+     * @param numerator the numerator of the ratio
+     * @param denominator the denominator of the ratio
+     */
+    private CardTrait(String value, int numerator, int denominator) {
+        this.name = HIT_RATIO;
+        this.value = value;
+        this.numerator = numerator;
+        this.denominator = denominator;
+    }
+
+    /**
+     * Reads the traits of a card from its card data value.
+     * @param traits the traits, as name=value pairs separated by semicolons, or an empty string for none
+     * @return the traits in the order they were written
+     * @throws IllegalArgumentException if a trait is unknown or its value cannot be read
+     */
+    public static CardTrait[] parse(String traits) {
+        if (traits == null || traits.isBlank())
+            return NONE;
+
+        List<CardTrait> result = new ArrayList<>();
+        for (String trait : traits.split(";")) {
+            if (trait.isBlank())
+                continue;
+
+            String[] pair = trait.split("=", 2);
+            if (pair.length != 2)
+                throw new IllegalArgumentException("Trait \"" + trait.trim() + "\" has no value");
+            String name = pair[0].trim();
+            String value = pair[1].trim();
+
+            if (name.equalsIgnoreCase(HIT_RATIO)) {
+                result.add(parseHitRatio(value));
+            } else {
+                throw new IllegalArgumentException("Unknown trait \"" + name + "\"");
+            }
+        }
+        return result.toArray(NONE);
+    }
+
+    /**
+     * Reads a hit ratio trait, written either as a fraction or a whole number
+     * @param value the ratio
+     * @return the trait
+     */
+    private static CardTrait parseHitRatio(String value) {
+        String[] fraction = value.split("/", 2);
+        try {
+            int numerator = Integer.parseInt(fraction[0].trim());
+            int denominator = fraction.length == 2 ? Integer.parseInt(fraction[1].trim()) : 1;
+            if (numerator < 0 || denominator <= 0)
+                throw new IllegalArgumentException("Hit ratio \"" + value + "\" must be a positive fraction");
+            return new CardTrait(value, numerator, denominator);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Hit ratio \"" + value + "\" is not a fraction", e);
+        }
+    }
+
+    /**
+     * Applies a list of traits to the damage of a single hit, in order.
+     * @param traits the traits of the card
+     * @param attackDamage the card's attack damage, including the card multiplier
+     * @return the damage each hit deals
+     */
+    public static int applyToHit(CardTrait[] traits, int attackDamage) {
+        int hitDamage = attackDamage;
+        for (CardTrait trait : traits)
+            hitDamage = trait.applyToHit(hitDamage);
+        return hitDamage;
+    }
+
+    /**
+     * Applies this trait to the damage of a single hit
+     * @param hitDamage the damage of the hit before this trait
+     * @return the damage of the hit after this trait
+     */
+    public int applyToHit(int hitDamage) {
+        return (int) ((long) hitDamage * numerator / denominator);
+    }
+
+    /**
+     * Gets the name of this trait
+     * @return the trait name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the value of this trait as written in the card data
+     * @return the trait value
+     */
+    public String getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return name + "=" + value;
+    }
+}
@@ -0,0 +1,100 @@
+package com.cs2212.cardbound.gameplay;
+
+/**
+ * A precomputed table of the damage dealt by every ordered pair of cards in the catalog, at a single card multiplier.
+ * <br><br>
+ * Each entry is what the Gameplay scene deals when the two cards are selected in that order, so the attack card is
+ * always put first. Looking up an attack is a single array read, and a table only has to be built again when the card
+ * multiplier moves to a new tier.
+ * @see CardLogic#calculateAttackDamage(CardInstance, CardInstance)
+ * @version 1.0
+ */
+public final class DamageTable {
+
+    /**
+     * The catalog this table was built from
+     */
+    private final CardCatalog catalog;
+    /**
+     * The card multiplier every card in this table was dealt at
+     */
+    private final int cardMultiplier;
+    /**
+     * The length of a row, which is one more than the number of cards since ids start at 1
+     */
+    private final int stride;
+    /**
+     * The damage of each ordered pair of card ids, stored at index first * stride + second
+     */
+    private final int[] damage;
+
+    /**
+     * Builds the table for every pair of cards in a catalog.
+     * @param catalog the cards to build the table from
+     * @param cardMultiplier the card multiplier to deal every card at
+     */
+    public DamageTable(CardCatalog catalog, int cardMultiplier) {
+        this.catalog = catalog;
+        this.cardMultiplier = cardMultiplier;
+        this.stride = catalog.size() + 1;
+        this.damage = new int[stride * stride];
+
+        CardInstance[] cards = new CardInstance[stride];
+        for (int id = 1; id < stride; id++)
+            cards[id] = new CardInstance(catalog.get(id), cardMultiplier);
+
+        for (int first = 1; first < stride; first++) {
+            for (int second = 1; second < stride; second++)
+                damage[first * stride + second] = CardLogic.calculateAttackDamage(cards[first], cards[second]);
+        }
+    }
+
+    /**
+     * Gets the card multiplier this table was built for
+     * @return the card multiplier
+     */
+    public int getCardMultiplier() {
+        return cardMultiplier;
+    }
+
+    /**
+     * Gets the catalog this table was built from
+     * @return the card catalog
+     */
+    public CardCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Looks up the damage of two cards selected in the given order.
+     * @param firstId the id of the first selected card
+     * @param secondId the id of the second selected card
+     * @return the damage dealt
+     */
+    public int getDamage(int firstId, int secondId) {
+        return damage[firstId * stride + secondId];
+    }
+
+    /**
+     * Gets the damage of two dealt cards selected in the given order. Cards that are not part of this table, such as
+     * cards from an older game save or cards dealt at a different multiplier, are calculated directly instead.
+     * @param first the first selected card
+     * @param second the second selected card
+     * @return the damage dealt
+     */
+    public int getDamage(CardInstance first, CardInstance second) {
+        if (covers(first) && covers(second))
+            return getDamage(first.getSpec().getId(), second.getSpec().getId());
+        return CardLogic.calculateAttackDamage(first, second);
+    }
+
+    /**
+     * Whether a dealt card has an entry in this table
+     * @param card the dealt card
+     * @return true if the card can be looked up, false otherwise
+     */
+    private boolean covers(CardInstance card) {
+        int id = card.getSpec().getId();
+        return id > 0 && id < stride && card.getCardMultiplier() == cardMultiplier && catalog.get(id) == card.getSpec();
+    }
+}
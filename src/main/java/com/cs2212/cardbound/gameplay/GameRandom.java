@@ -0,0 +1,82 @@
+package com.cs2212.cardbound.gameplay;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * The source of every random number in the game.
+ * <br><br>
+ * Anything that changes the outcome of a run is drawn from a {@link SplittableRandom} stream derived from the run's seed
+ * and the number of hands dealt so far, so a run can be replayed exactly from the seed stored in its game save, and
+ * simulations can give each thread its own stream without sharing any state. Randomness that only changes how the game
+ * looks or sounds, such as which sound effect plays, is drawn from {@link #cosmetic()} so it never disturbs a run's
+ * streams.
+ * @version 1.0
+ */
+public final class GameRandom {
+
+    /**
+     * The odd constant used to spread stream indices across the seed space
+     */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * GameRandom only has static methods and is never instantiated
+     */
+    private GameRandom() {
+    }
+
+    /**
+     * Creates a seed for a new run
+     * @return a new, unpredictable run seed
+     */
+    public static long newSeed() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    /**
+     * Creates the random number generator for one stream of a run, such as one dealt hand. The same seed and index
+     * always give the same stream, and different indices give independent streams.
+     * @param seed the run seed
+     * @param index the index of the stream within the run
+     * @return the random number generator for that stream
+     */
+    public static SplittableRandom stream(long seed, long index) {
+        return new SplittableRandom(mix(seed + (index + 1) * GOLDEN_GAMMA));
+    }
+
+    /**
+     * Gets the random number generator for randomness that doesn't affect the outcome of a run, such as sound effects
+     * and messages. It never contends between threads and never touches a run's streams.
+     * @return the current thread's cosmetic random number generator
+     */
+    public static RandomGenerator cosmetic() {
+        return ThreadLocalRandom.current();
+    }
+
+    /**
+     * Shuffles a list in place with a Fisher-Yates shuffle, drawing from the given random number generator
+     * @param list the list to shuffle
+     * @param random the random number generator to draw with
+     * @param <T> the type of the list's elements
+     */
+    public static <T> void shuffle(List<T> list, RandomGenerator random) {
+        for (int i = list.size() - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            list.set(i, list.set(j, list.get(i)));
+        }
+    }
+
+    /**
+     * Scrambles the bits of a seed so that nearby seeds give unrelated streams (the finaliser of SplitMix64)
+     * @param z the value to scramble
+     * @return the scrambled value
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
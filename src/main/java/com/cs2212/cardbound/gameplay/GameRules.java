@@ -0,0 +1,26 @@
+package com.cs2212.cardbound.gameplay;
+
+/**
+ * The rules of a run that both the Gameplay scene and the {@link RunSimulator} follow, kept here so that the simulator
+ * never needs any JavaFX class.
+ * @version 1.0
+ */
+public final class GameRules {
+
+    /**
+     * The number of lives a run starts with
+     */
+    public static final int STARTING_LIVES = 3;
+    /**
+     * Every level that is a multiple of this number is a boss level
+     */
+    public static final int BOSS_INTERVAL = 5;
+    /**
+     * The base score modifier that is added to the player's score value
+     */
+    public static final int BASE_SCORE_MODIFIER = 100;
+
+    private GameRules() {
+        throw new AssertionError();
+    }
+}
@@ -1,5 +1,8 @@
 package com.cs2212.cardbound.gameplay;
 
+import java.util.Arrays;
+import java.util.Objects;
+
 /**
  * Container class to store game save information for a specific user.
  * <br><br>
@@ -9,7 +12,7 @@ package com.cs2212.cardbound.gameplay;
  *
  * @author Pranav Arora
  */
-public class GameSave {
+public class GameSave implements SaveRecord {
 
     /**
      * The unique identifier of the user. GameSave is mapped to the specific user,
@@ -37,11 +40,49 @@ public class GameSave {
      */
     int enemyHp;
     /**
-     * The list of cards in the current level.
+     * The full data of each card in the current level. Only kept for saves whose cards are not all in the card catalog,
+     * otherwise the cards are stored as cardIds.
      * <br>
      * @see Card
      */
     String[][] cardsList;
+    /**
+     * The id of each card in the current level, resolved through the card catalog when the save is loaded.
+     * <br>
+     * @see CardCatalog
+     */
+    int[] cardIds;
+    /**
+     * The version of the card catalog that cardIds refer to.
+     */
+    String catalogVersion;
+    /**
+     * The title of each card in cardIds, so the cards can be found again if the card catalog has changed since.
+     */
+    String[] cardTitles;
+    /**
+     * The seed of the saved run, which every hand in the run is drawn from.
+     * <br>
+     * @see GameRandom
+     */
+    long runSeed;
+    /**
+     * The number of hands dealt in the saved run, including the hand in cardsList.
+     */
+    int handsDealt;
+    /**
+     * Whether the saved run is only a checkpoint of a level in progress. A checkpoint is kept on disk, but only a run
+     * the user left with lives remaining can be continued.
+     */
+    boolean checkpoint;
+    /**
+     * Whether this game save has changed since it was last saved. Not written to the save file.
+     */
+    private transient boolean dirty = true;
+    /**
+     * The card data of cardIds, resolved the first time it is asked for. Not written to the save file.
+     */
+    private transient String[][] resolvedCards;
 
 
     /**
@@ -74,7 +115,7 @@ public class GameSave {
         this.score = score;
         this.runTimer = runTimer;
         this.enemyHp = enemyHp;
-        this.cardsList = cardsList;
+        setCards(cardsList);
     }
 
     /**
@@ -87,12 +128,104 @@ public class GameSave {
      * @param cardsList The list of cards in the game.
      */
     public void setGameSave(int numLives, int level, int score, String runTimer, int enemyHp, String[][] cardsList) {
+        int[] oldCardIds = this.cardIds;
+        String[][] oldCardsList = this.cardsList;
+        String oldCatalogVersion = this.catalogVersion;
+        setCards(cardsList);
+        dirty |= this.numLives != numLives || this.level != level || this.score != score || this.enemyHp != enemyHp
+                || !Objects.equals(this.runTimer, runTimer) || !Arrays.equals(oldCardIds, this.cardIds)
+                || !Arrays.deepEquals(oldCardsList, this.cardsList) || !Objects.equals(oldCatalogVersion, this.catalogVersion);
         this.numLives = numLives;
         this.level = level;
         this.score = score;
         this.runTimer = runTimer;
         this.enemyHp = enemyHp;
-        this.cardsList = cardsList;
+    }
+
+    /**
+     * Stores the cards in the current level as card ids, or in full if any of them are not in the card catalog.
+     * @param cardsList The list of cards in the game, or null if there is no saved game.
+     */
+    private void setCards(String[][] cardsList) {
+        int[] ids = null;
+        String version = null;
+        if (cardsList != null) {
+            CardCatalog catalog = CardCatalog.getInstance();
+            ids = catalog.getCardIds(cardsList);
+            version = catalog.getVersion();
+        }
+        this.cardIds = ids;
+        this.catalogVersion = ids != null ? version : null;
+        this.cardsList = ids == null ? cardsList : null;
+        this.resolvedCards = ids != null ? cardsList : null;
+        this.cardTitles = null;
+        if (ids != null) {
+            this.cardTitles = new String[cardsList.length];
+            for (int i = 0; i < cardsList.length; i++)
+                this.cardTitles[i] = cardsList[i][0];
+        }
+    }
+
+    /**
+     * Gets the ids of the cards in the current level in the current card catalog. Ids saved with another version of the
+     * catalog may now be other cards, so the cards are found again by their titles instead.
+     * @return The card ids, or null if the cards were saved with another version and can't all be found by title.
+     */
+    private int[] getCurrentCardIds() {
+        CardCatalog catalog = CardCatalog.getInstance();
+        if (catalog.getVersion().equals(catalogVersion))
+            return cardIds;
+        if (cardTitles == null || cardTitles.length != cardIds.length)
+            return null;
+        int[] ids = new int[cardTitles.length];
+        for (int i = 0; i < cardTitles.length; i++) {
+            CardSpec card = catalog.findByTitle(cardTitles[i]);
+            if (card == null)
+                return null;
+            ids[i] = card.getId();
+        }
+        return ids;
+    }
+
+    /**
+     * Converts cards stored in full by an older version of the game to card ids, so that the save is written in the
+     * smaller form from then on, and moves card ids saved with an older card catalog to the current one. Cards that are
+     * no longer in the card catalog stay as they were.
+     */
+    public void migrateCards() {
+        if (cardIds != null) {
+            int[] ids = getCurrentCardIds();
+            if (ids != null && ids != cardIds) {
+                cardIds = ids;
+                catalogVersion = CardCatalog.getInstance().getVersion();
+                dirty = true;
+            }
+            return;
+        }
+        if (cardsList == null)
+            return;
+        setCards(cardsList);
+        dirty |= cardIds != null;
+    }
+
+    /**
+     * Updates the random number state of the user's saved run.
+     * @param runSeed The seed of the run.
+     * @param handsDealt The number of hands dealt in the run.
+     */
+    public void setRunState(long runSeed, int handsDealt) {
+        dirty |= this.runSeed != runSeed || this.handsDealt != handsDealt;
+        this.runSeed = runSeed;
+        this.handsDealt = handsDealt;
+    }
+
+    /**
+     * Sets whether the saved run is only a checkpoint of a level in progress.
+     * @param checkpoint True for a checkpoint, false for a run the user left with lives remaining.
+     */
+    public void setCheckpoint(boolean checkpoint) {
+        dirty |= this.checkpoint != checkpoint;
+        this.checkpoint = checkpoint;
     }
 
     /**
@@ -144,11 +277,68 @@ public class GameSave {
     }
 
     /**
-     * Returns the list of cards in the game.
-     * @return The list of cards.
+     * Returns the list of cards in the game, resolving stored card ids through the card catalog. Ids saved with an older
+     * version of the catalog are not trusted, so those cards are found by title instead.
+     * @return The list of cards, or null if there is no saved game or its cards can no longer be resolved.
      */
     public String[][] getCardsList() {
-        return cardsList;
+        if (cardIds == null)
+            return cardsList;
+        if (resolvedCards == null) {
+            int[] ids = getCurrentCardIds();
+            if (ids == null)
+                return null;
+            resolvedCards = CardCatalog.getInstance().getCardData(ids);
+        }
+        return resolvedCards;
+    }
+
+    /**
+     * Returns the seed of the saved run.
+     * @return The run seed, or 0 for saves made before runs were seeded.
+     */
+    public long getRunSeed() {
+        return runSeed;
+    }
+
+    /**
+     * Returns the number of hands dealt in the saved run.
+     * @return The number of hands dealt.
+     */
+    public int getHandsDealt() {
+        return handsDealt;
     }
 
+    /**
+     * Returns whether the saved run is only a checkpoint of a level in progress.
+     * @return True if the run is a checkpoint, false otherwise.
+     */
+    public boolean isCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Checks whether the saved run can be continued, which is only once the user has left it with lives remaining.
+     * @return True if there is a run to continue, false otherwise.
+     */
+    public boolean isResumable() {
+        return !checkpoint && getCardsList() != null;
+    }
+
+    /**
+     * Checks whether this game save has changed since it was last saved.
+     * @return True if the game save has unsaved changes, false otherwise.
+     */
+    @Override
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Marks this game save as saved.
+     */
+    @Override
+    public void markClean() {
+        dirty = false;
+    }
 }
@@ -0,0 +1,148 @@
+package com.cs2212.cardbound.gameplay;
+
+import java.util.Arrays;
+
+/**
+ * Solves a dealt hand by evaluating every ordered pair of its cards.
+ * <br><br>
+ * Every damage is looked up in a {@link DamageTable}, so a hand of 4 cards is solved in 12 array reads with no calls
+ * back into the damage calculations. That is cheap enough to run on the JavaFX application thread whenever a level is
+ * dealt. A solved hand knows every damage total the player can reach, and the first pair of cards that deals exactly
+ * the enemy's health.
+ * @version 1.0
+ */
+public final class HandSolver {
+
+    /**
+     * The enemy health the hand was solved against
+     */
+    private final int enemyHealth;
+    /**
+     * Every distinct damage total the hand can reach, in ascending order
+     */
+    private final int[] reachableTotals;
+    /**
+     * The index in the hand of the first card of the exact pair, or -1 if there is none
+     */
+    private final int first;
+    /**
+     * The index in the hand of the second card of the exact pair, or -1 if there is none
+     */
+    private final int second;
+
+    /**
+     * Creates a solved hand.
+     * @param enemyHealth the enemy health the hand was solved against
+     * @param reachableTotals the distinct reachable totals, in ascending order
+     * @param first the hand index of the first card of the exact pair, or -1
+     * @param second the hand index of the second card of the exact pair, or -1
+     */
+    private HandSolver(int enemyHealth, int[] reachableTotals, int first, int second) {
+        this.enemyHealth = enemyHealth;
+        this.reachableTotals = reachableTotals;
+        this.first = first;
+        this.second = second;
+    }
+
+    /**
+     * Solves a hand of dealt cards against an enemy's health.
+     * @param damageTable the damage table for the hand's card multiplier
+     * @param hand the dealt cards
+     * @param enemyHealth the enemy's health
+     * @return the solved hand
+     */
+    public static HandSolver solve(DamageTable damageTable, CardInstance[] hand, int enemyHealth) {
+        int[] totals = new int[hand.length * (hand.length - 1)];
+        int count = 0;
+        int first = -1;
+        int second = -1;
+
+        for (int i = 0; i < hand.length; i++) {
+            for (int j = 0; j < hand.length; j++) {
+                if (i == j)
+                    continue;
+                int damage = damageTable.getDamage(hand[i], hand[j]);
+                totals[count++] = damage;
+                if (first == -1 && damage == enemyHealth) {
+                    first = i;
+                    second = j;
+                }
+            }
+        }
+
+        return new HandSolver(enemyHealth, distinct(totals, count), first, second);
+    }
+
+    /**
+     * Sorts a few values and removes their duplicates
+     * @param values the values, which are sorted in place
+     * @param count the number of values to use
+     * @return the distinct values in ascending order
+     */
+    private static int[] distinct(int[] values, int count) {
+        Arrays.sort(values, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || values[i] != values[unique - 1])
+                values[unique++] = values[i];
+        }
+        return Arrays.copyOf(values, unique);
+    }
+
+    /**
+     * Gets the enemy health the hand was solved against
+     * @return the enemy's health
+     */
+    public int getEnemyHealth() {
+        return enemyHealth;
+    }
+
+    /**
+     * Whether some pair of cards deals exactly the enemy's health
+     * @return true if the hand can be cleared without losing a life, false otherwise
+     */
+    public boolean isSolvable() {
+        return first != -1;
+    }
+
+    /**
+     * Gets the index in the hand of the first card to select for an exact hit
+     * @return the hand index, or -1 if the hand is not solvable
+     */
+    public int getFirst() {
+        return first;
+    }
+
+    /**
+     * Gets the index in the hand of the second card to select for an exact hit
+     * @return the hand index, or -1 if the hand is not solvable
+     */
+    public int getSecond() {
+        return second;
+    }
+
+    /**
+     * Gets every distinct damage total the hand can reach
+     * @return a copy of the totals, in ascending order
+     */
+    public int[] getReachableTotals() {
+        return reachableTotals.clone();
+    }
+
+    /**
+     * Whether some pair of cards deals exactly the given damage
+     * @param damage the damage total
+     * @return true if the total can be reached, false otherwise
+     */
+    public boolean canReach(int damage) {
+        return Arrays.binarySearch(reachableTotals, damage) >= 0;
+    }
+
+    /**
+     * Gets the highest damage total the hand can reach
+     * @return the highest total, or 0 if the hand has fewer than 2 cards
+     */
+    public int getMaxTotal() {
+        return reachableTotals.length == 0 ? 0 : reachableTotals[reachableTotals.length - 1];
+    }
+}
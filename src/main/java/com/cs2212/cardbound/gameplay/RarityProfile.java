@@ -0,0 +1,80 @@
+package com.cs2212.cardbound.gameplay;
+
+/**
+ * How likely each rarity of card is to be drawn at a point in a run.
+ * <br><br>
+ * Each boss defeated moves the run to a new tier, and each tier multiplies the draw weight of uncommon, rare and
+ * legendary cards a little more, so stronger cards show up more often as the enemies get tougher. Tiers stop changing
+ * after {@link #MAX_TIER} bosses.
+ * @version 1.0
+ */
+public final class RarityProfile {
+
+    /**
+     * The number of levels in each tier, which is the distance between boss levels
+     */
+    public static final int LEVELS_PER_TIER = 5;
+    /**
+     * The last tier, reached after this many bosses are defeated
+     */
+    public static final int MAX_TIER = 8;
+    /**
+     * How much each tier adds to the weight multiplier of each rarity, indexed by rarity
+     */
+    private static final double[] BOOST_PER_TIER = {0, 0.25, 0.5, 1};
+
+    /**
+     * The tier of this profile
+     */
+    private final int tier;
+    /**
+     * The weight multiplier of each rarity, indexed by rarity
+     */
+    private final double[] multipliers;
+
+    /**
+     * Creates the profile of a tier.
+     * @param tier the tier, from 0 to {@link #MAX_TIER}
+     */
+    private RarityProfile(int tier) {
+        this.tier = tier;
+        this.multipliers = new double[CardRarity.values().length];
+        for (int i = 0; i < multipliers.length; i++)
+            multipliers[i] = 1 + tier * BOOST_PER_TIER[i];
+    }
+
+    /**
+     * Gets the tier of a level
+     * @param level the level, starting from 1
+     * @return the number of bosses defeated before the level, up to {@link #MAX_TIER}
+     */
+    public static int tierOf(int level) {
+        return Math.max(0, Math.min(MAX_TIER, (level - 1) / LEVELS_PER_TIER));
+    }
+
+    /**
+     * Gets the profile of a tier
+     * @param tier the tier, from 0 to {@link #MAX_TIER}
+     * @return the profile
+     */
+    public static RarityProfile forTier(int tier) {
+        return new RarityProfile(Math.max(0, Math.min(MAX_TIER, tier)));
+    }
+
+    /**
+     * Gets the tier of this profile
+     * @return the tier
+     */
+    public int getTier() {
+        return tier;
+    }
+
+    /**
+     * Gets the draw weight of a card with this profile applied
+     * @param card the card
+     * @return the card's draw weight
+     */
+    public double weightOf(CardSpec card) {
+        return card.getWeight() * multipliers[card.getRarity().ordinal()];
+    }
+}
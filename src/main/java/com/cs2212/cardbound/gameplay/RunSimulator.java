@@ -0,0 +1,257 @@
+package com.cs2212.cardbound.gameplay;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Plays whole runs of CARDBOUND without JavaFX, for balancing the card data.
+ * <br><br>
+ * Each simulated run follows the same rules as the Gameplay scene. Hands are drawn with
+ * {@link CardLogic#generateCardPools} and {@link CardLogic#generateCardIndexList}, and the enemy's health is the damage
+ * of the first two cards dealt. Every 5th level is a boss that gives double points and raises the card and score
+ * multipliers. The player loses a life whenever an attack misses the enemy's exact health, and an overkill still clears
+ * the level if the player survives it.
+ * <br><br>
+ * The simulated player finds an exact pair with a fixed accuracy, and otherwise picks two cards at random. Runs are split
+ * across every core with fork/join, and each task draws from its own split of the random number generator.
+ * @version 1.0
+ */
+public class RunSimulator {
+
+    /**
+     * The number of cards in a hand
+     */
+    private static final int HAND_SIZE = 4;
+    /**
+     * Tasks with at most this many runs are simulated directly instead of being split further
+     */
+    private static final long RUNS_PER_TASK = 1024;
+
+    /**
+     * The cards runs are drawn from
+     */
+    private final CardCatalog catalog;
+    /**
+     * The chance that the simulated player picks a pair that exactly defeats the enemy
+     */
+    private final double accuracy;
+    /**
+     * The highest level a run can reach before it is stopped
+     */
+    private final int maxLevel;
+    /**
+     * The damage table of each card multiplier tier, built the first time a run reaches that tier
+     */
+    private final AtomicReferenceArray<DamageTable> damageTables;
+
+    /**
+     * Creates a simulator.
+     * @param catalog the cards runs are drawn from
+     * @param accuracy the chance, from 0 to 1, that the simulated player picks a pair that exactly defeats the enemy
+     * @param maxLevel the highest level a run can reach before it is stopped
+     */
+    public RunSimulator(CardCatalog catalog, double accuracy, int maxLevel) {
+        if (accuracy < 0 || accuracy > 1)
+            throw new IllegalArgumentException("Accuracy must be between 0 and 1");
+        if (maxLevel < 1)
+            throw new IllegalArgumentException("The level cap must be at least 1");
+        this.catalog = catalog;
+        this.accuracy = accuracy;
+        this.maxLevel = maxLevel;
+        this.damageTables = new AtomicReferenceArray<>(maxLevel / GameRules.BOSS_INTERVAL + 2);
+    }
+
+    /**
+     * Simulates a batch of runs across every available core.
+     * @param runs the number of runs to simulate
+     * @param seed the seed for the random number generator, so that a batch can be reproduced
+     * @return the combined results of every run
+     */
+    public SimulationReport simulate(long runs, long seed) {
+        return ForkJoinPool.commonPool().invoke(new SimulationTask(runs, new SplittableRandom(seed)));
+    }
+
+    /**
+     * Simulates a batch of runs on a set number of threads, such as a single thread to measure the speed of one core.
+     * @param runs the number of runs to simulate
+     * @param seed the seed for the random number generator, so that a batch can be reproduced
+     * @param threads the number of threads to simulate on
+     * @return the combined results of every run, the same as {@link #simulate(long, long)} gives for the same seed
+     */
+    public SimulationReport simulate(long runs, long seed, int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.invoke(new SimulationTask(runs, new SplittableRandom(seed)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Simulates a batch of runs on the calling thread.
+     * @param runs the number of runs to simulate
+     * @param random the random number generator to draw from
+     * @return the combined results of every run
+     */
+    private SimulationReport simulateSequentially(long runs, SplittableRandom random) {
+        SimulationReport report = new SimulationReport(maxLevel);
+        for (long i = 0; i < runs; i++)
+            playRun(random, report);
+        return report;
+    }
+
+    /**
+     * Plays a single run from level 1 until the player runs out of lives or reaches the level cap.
+     * @param random the random number generator to draw from
+     * @param report the report to record the outcome in
+     */
+    private void playRun(SplittableRandom random, SimulationReport report) {
+        int lives = GameRules.STARTING_LIVES;
+        int level = 1;
+        int score = 0;
+        double scoreMultiplier = 1;
+        int cardMultiplier = 1;
+        DamageTable damageTable = getDamageTable(cardMultiplier);
+
+        while (level <= maxLevel) {
+            // Deal the level's hand and set the enemy's health from the first two cards
+            int[] hand = CardLogic.generateCardIndexList(CardLogic.generateCardPools(random), catalog.getPool(level), random);
+            int enemyHealth = damageTable.getDamage(hand[0], hand[1]);
+
+            // Attack until the enemy is defeated or the player runs out of lives
+            boolean cleared = false;
+            while (!cleared) {
+                int damage = chooseAttack(random, damageTable, hand, enemyHealth);
+                if (damage != enemyHealth) {
+                    lives--;
+                    if (lives == 0) {
+                        report.record(level - 1, score, false);
+                        return;
+                    }
+                }
+                // An exact hit or a survived overkill clears the level, otherwise the level is retried
+                cleared = damage >= enemyHealth;
+            }
+
+            // Award points the same way as the victory screen
+            if (level % GameRules.BOSS_INTERVAL == 0) {
+                score = (int) (score + (GameRules.BASE_SCORE_MODIFIER * scoreMultiplier) * 2);
+                scoreMultiplier = scoreMultiplier * 1.5;
+                cardMultiplier++;
+                damageTable = getDamageTable(cardMultiplier);
+            } else {
+                score = (int) (score + GameRules.BASE_SCORE_MODIFIER * scoreMultiplier);
+            }
+            level++;
+        }
+
+        report.record(maxLevel, score, true);
+    }
+
+    /**
+     * Gets the damage table for a card multiplier, building it if no run has reached that tier yet.
+     * @param cardMultiplier the card multiplier
+     * @return the damage table for that multiplier
+     */
+    private DamageTable getDamageTable(int cardMultiplier) {
+        DamageTable table = damageTables.get(cardMultiplier);
+        if (table == null) {
+            // Two threads may build the same tier at once, but they build identical tables so either one can be kept
+            damageTables.compareAndSet(cardMultiplier, null, new DamageTable(catalog, cardMultiplier));
+            table = damageTables.get(cardMultiplier);
+        }
+        return table;
+    }
+
+    /**
+     * Picks two cards the way the simulated player would and attacks with them.
+     * @param random the random number generator to draw from
+     * @param damageTable the damage table for the current card multiplier
+     * @param hand the ids of the cards in the current hand
+     * @param enemyHealth the enemy's health
+     * @return the damage dealt by the chosen pair
+     */
+    private int chooseAttack(SplittableRandom random, DamageTable damageTable, int[] hand, int enemyHealth) {
+        if (random.nextDouble() < accuracy) {
+            for (int i = 0; i < HAND_SIZE; i++) {
+                for (int j = 0; j < HAND_SIZE; j++) {
+                    if (i != j && damageTable.getDamage(hand[i], hand[j]) == enemyHealth)
+                        return enemyHealth;
+                }
+            }
+        }
+
+        int first = random.nextInt(HAND_SIZE);
+        int second = random.nextInt(HAND_SIZE - 1);
+        if (second >= first)
+            second++;
+        return damageTable.getDamage(hand[first], hand[second]);
+    }
+
+    /**
+     * A fork/join task that splits a batch of runs in half until the halves are small enough to simulate directly
+     */
+    private class SimulationTask extends RecursiveTask<SimulationReport> {
+
+        private final long runs;
+        private final SplittableRandom random;
+
+        SimulationTask(long runs, SplittableRandom random) {
+            this.runs = runs;
+            this.random = random;
+        }
+
+        @Override
+        protected SimulationReport compute() {
+            if (runs <= RUNS_PER_TASK)
+                return simulateSequentially(runs, random);
+
+            long half = runs / 2;
+            SimulationTask left = new SimulationTask(half, random.split());
+            SimulationTask right = new SimulationTask(runs - half, random);
+            left.fork();
+            SimulationReport report = right.compute();
+            return report.merge(left.join());
+        }
+    }
+
+    /**
+     * Runs a balance simulation from the command line and prints the report, along with how fast the runs were
+     * simulated, so that it doubles as the simulator's benchmark.
+     * <br>
+     * Arguments, all optional: number of runs, player accuracy, level cap, seed, and a path to a card data file to use
+     * instead of the bundled CardData.CSV. The runs are spread over every core, or over the number of threads set with
+     * {@code -Dcardbound.simulatorThreads}.
+     * @param args the command line arguments
+     * @throws IOException if the card data file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        long runs = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        double accuracy = args.length > 1 ? Double.parseDouble(args[1]) : 0.8;
+        int maxLevel = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+
+        CardCatalog catalog;
+        if (args.length > 4) {
+            try (InputStream in = new FileInputStream(args[4])) {
+                catalog = CardCatalog.load(in);
+            }
+        } else {
+            catalog = CardCatalog.getInstance();
+        }
+
+        int threads = Integer.getInteger("cardbound.simulatorThreads", Runtime.getRuntime().availableProcessors());
+
+        long start = System.nanoTime();
+        SimulationReport report = new RunSimulator(catalog, accuracy, maxLevel).simulate(runs, seed, threads);
+        long elapsed = System.nanoTime() - start;
+
+        System.out.print(report);
+        System.out.printf("Simulated in %.2f s on %d threads, %.0f runs/s (seed %d)%n", elapsed / 1e9, threads, runs / (elapsed / 1e9), seed);
+    }
+}
@@ -0,0 +1,24 @@
+package com.cs2212.cardbound.gameplay;
+
+/**
+ * A record that is stored in the save files and keeps track of whether it has changed since it was last saved.
+ * <br><br>
+ * Setters mark a record as dirty only when they actually change a value, so saving can skip every record that has not
+ * changed.
+ * @see User
+ * @see GameSave
+ * @version 1.0
+ */
+public interface SaveRecord {
+
+    /**
+     * Whether this record has changed since it was last saved
+     * @return true if the record has unsaved changes, false otherwise
+     */
+    boolean isDirty();
+
+    /**
+     * Marks this record as saved
+     */
+    void markClean();
+}
@@ -0,0 +1,210 @@
+package com.cs2212.cardbound.gameplay;
+
+import java.util.Arrays;
+
+/**
+ * The results of a batch of simulated runs, kept as histograms so that reports from many threads can be merged cheaply.
+ * @see RunSimulator
+ * @version 1.0
+ */
+public class SimulationReport {
+
+    /**
+     * The width of each bucket in the score histogram
+     */
+    public static final int SCORE_BUCKET_SIZE = 100;
+
+    /**
+     * The number of runs recorded
+     */
+    private long runs;
+    /**
+     * The number of runs that were still alive when they reached the level cap
+     */
+    private long survivedRuns;
+    /**
+     * The sum of every run's final score
+     */
+    private long totalScore;
+    /**
+     * The highest final score of any run
+     */
+    private int maxScore;
+    /**
+     * The number of runs by the number of levels they cleared
+     */
+    private long[] levelsCleared;
+    /**
+     * The number of runs that died on each level
+     */
+    private long[] deathsByLevel;
+    /**
+     * The number of runs by final score, in buckets of {@link #SCORE_BUCKET_SIZE} points
+     */
+    private long[] scoreBuckets;
+
+    /**
+     * Creates an empty report.
+     * @param maxLevel the highest level a run can reach
+     */
+    public SimulationReport(int maxLevel) {
+        levelsCleared = new long[maxLevel + 1];
+        deathsByLevel = new long[maxLevel + 1];
+        scoreBuckets = new long[16];
+    }
+
+    /**
+     * Records the outcome of a single run.
+     * @param levelsCleared the number of levels the run cleared
+     * @param score the final score of the run
+     * @param survived whether the run was still alive when it reached the level cap
+     */
+    void record(int levelsCleared, int score, boolean survived) {
+        runs++;
+        totalScore += score;
+        maxScore = Math.max(maxScore, score);
+        this.levelsCleared[levelsCleared]++;
+
+        if (survived)
+            survivedRuns++;
+        else
+            deathsByLevel[levelsCleared + 1]++; // The run died on the level after its last cleared one
+
+        int bucket = score / SCORE_BUCKET_SIZE;
+        if (bucket >= scoreBuckets.length)
+            scoreBuckets = Arrays.copyOf(scoreBuckets, Math.max(bucket + 1, scoreBuckets.length * 2));
+        scoreBuckets[bucket]++;
+    }
+
+    /**
+     * Adds the results of another report into this one.
+     * @param other the report to merge in
+     * @return this report
+     */
+    SimulationReport merge(SimulationReport other) {
+        runs += other.runs;
+        survivedRuns += other.survivedRuns;
+        totalScore += other.totalScore;
+        maxScore = Math.max(maxScore, other.maxScore);
+
+        for (int i = 0; i < levelsCleared.length; i++) {
+            levelsCleared[i] += other.levelsCleared[i];
+            deathsByLevel[i] += other.deathsByLevel[i];
+        }
+
+        if (other.scoreBuckets.length > scoreBuckets.length)
+            scoreBuckets = Arrays.copyOf(scoreBuckets, other.scoreBuckets.length);
+        for (int i = 0; i < other.scoreBuckets.length; i++)
+            scoreBuckets[i] += other.scoreBuckets[i];
+
+        return this;
+    }
+
+    /**
+     * Gets the number of runs recorded
+     * @return the number of runs
+     */
+    public long getRuns() {
+        return runs;
+    }
+
+    /**
+     * Gets the number of runs that were still alive when they reached the level cap
+     * @return the number of surviving runs
+     */
+    public long getSurvivedRuns() {
+        return survivedRuns;
+    }
+
+    /**
+     * Gets the average final score of all runs
+     * @return the mean score, or 0 if no runs were recorded
+     */
+    public double getMeanScore() {
+        return runs == 0 ? 0 : (double) totalScore / runs;
+    }
+
+    /**
+     * Gets the highest final score of any run
+     * @return the highest score
+     */
+    public int getMaxScore() {
+        return maxScore;
+    }
+
+    /**
+     * Gets the number of runs by the number of levels they cleared
+     * @return a copy of the histogram, indexed by levels cleared
+     */
+    public long[] getLevelsClearedHistogram() {
+        return levelsCleared.clone();
+    }
+
+    /**
+     * Gets the number of runs that died on each level
+     * @return a copy of the histogram, indexed by level
+     */
+    public long[] getDeathsByLevelHistogram() {
+        return deathsByLevel.clone();
+    }
+
+    /**
+     * Gets the number of runs by final score
+     * @return a copy of the histogram, where index i counts scores from i * {@link #SCORE_BUCKET_SIZE} up to the next bucket
+     */
+    public long[] getScoreHistogram() {
+        return scoreBuckets.clone();
+    }
+
+    /**
+     * Gets the number of levels cleared at the given percentile
+     * @param percentile the percentile, from 0 to 1
+     * @return the number of levels cleared
+     */
+    public int getLevelsClearedPercentile(double percentile) {
+        return percentileIndex(levelsCleared, percentile);
+    }
+
+    /**
+     * Gets the lower bound of the score bucket at the given percentile
+     * @param percentile the percentile, from 0 to 1
+     * @return the score at that percentile, rounded down to its bucket
+     */
+    public int getScorePercentile(double percentile) {
+        return percentileIndex(scoreBuckets, percentile) * SCORE_BUCKET_SIZE;
+    }
+
+    /**
+     * Finds the index of a histogram that the given percentile falls in
+     * @param histogram the histogram
+     * @param percentile the percentile, from 0 to 1
+     * @return the index of the bucket holding that percentile
+     */
+    private int percentileIndex(long[] histogram, double percentile) {
+        long target = (long) Math.ceil(percentile * runs);
+        long seen = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            seen += histogram[i];
+            if (seen >= target && seen > 0)
+                return i;
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Runs: %d (%d reached the level cap)%n", runs, survivedRuns));
+        report.append(String.format("Score: mean %.1f, median %d, p90 %d, p99 %d, max %d%n", getMeanScore(),
+                getScorePercentile(0.5), getScorePercentile(0.9), getScorePercentile(0.99), maxScore));
+        report.append(String.format("Levels cleared: median %d, p90 %d, p99 %d%n",
+                getLevelsClearedPercentile(0.5), getLevelsClearedPercentile(0.9), getLevelsClearedPercentile(0.99)));
+
+        report.append("Deaths by level:");
+        for (int level = 1; level < deathsByLevel.length; level++) {
+            if (deathsByLevel[level] > 0)
+                report.append(String.format(" %d=%.2f%%", level, 100.0 * deathsByLevel[level] / runs));
+        }
+        return report.append(System.lineSeparator()).toString();
+    }
+}
@@ -1,5 +1,7 @@
 package com.cs2212.cardbound.gameplay;
 
+import java.util.Objects;
+
 /**
  * Container class to store user based information
  *
@@ -23,7 +25,7 @@ package com.cs2212.cardbound.gameplay;
  * @author Pranav Arora
  * </p>
  */
-public class User {
+public class User implements SaveRecord {
 
     /**
      * userID - primary key to differentiate each user
@@ -121,6 +123,11 @@ public class User {
      */
     private boolean currentUser;
 
+    /**
+     * Whether this user has changed since it was last saved. Not written to the save file.
+     */
+    private transient boolean dirty = true;
+
     /**
      * Constructs a new User object with the given username, password, and ID.
      *
@@ -271,6 +278,7 @@ public class User {
      * @param lifetimeGames The total number of games played.
      */
     public void setLifetimeGames(int lifetimeGames) {
+        dirty |= this.lifetimeGames != lifetimeGames;
         this.lifetimeGames = lifetimeGames;
     }
 
@@ -280,6 +288,7 @@ public class User {
      * @param bestScore The best score.
      */
     public void setBestScore(int bestScore) {
+        dirty |= this.bestScore != bestScore;
         this.bestScore = bestScore;
     }
 
@@ -289,6 +298,7 @@ public class User {
      * @param bestTime The best time in milliseconds.
      */
     public void setBestTime(int bestTime) {
+        dirty |= this.bestTime != bestTime;
         this.bestTime = bestTime;
         setBestTimeString(bestTime);
     }
@@ -299,6 +309,7 @@ public class User {
      * @param mostLevelsCleared The total number of levels cleared.
      */
     public void setMostLevelsCleared(int mostLevelsCleared) {
+        dirty |= this.mostLevelsCleared != mostLevelsCleared;
         this.mostLevelsCleared = mostLevelsCleared;
     }
 
@@ -308,6 +319,7 @@ public class User {
      * @param totalPlaytime The total playtime in milliseconds.
      */
     public void setTotalPlaytime(int totalPlaytime) {
+        dirty |= this.totalPlaytime != totalPlaytime;
         this.totalPlaytime = totalPlaytime;
         setTotalPlaytimeString(totalPlaytime);
     }
@@ -318,6 +330,7 @@ public class User {
      * @param state The state indicating whether the user is a player.
      */
     public void setAsPlayer(boolean state) {
+        dirty |= this.currentUser != state;
         this.currentUser = state;
     }
 
@@ -345,7 +358,9 @@ public class User {
      * @param bestTime The best time in milliseconds.
      */
     public void setBestTimeString(int bestTime) {
-        bestTimeString = formatTime(bestTime);
+        String bestTimeString = formatTime(bestTime);
+        dirty |= !Objects.equals(this.bestTimeString, bestTimeString);
+        this.bestTimeString = bestTimeString;
     }
 
     /**
@@ -354,7 +369,9 @@ public class User {
      * @param totalPlaytime The total playtime in milliseconds.
      */
     public void setTotalPlaytimeString(int totalPlaytime) {
-        totalPlaytimeString = formatTime(totalPlaytime);
+        String totalPlaytimeString = formatTime(totalPlaytime);
+        dirty |= !Objects.equals(this.totalPlaytimeString, totalPlaytimeString);
+        this.totalPlaytimeString = totalPlaytimeString;
     }
 
     /**
@@ -363,6 +380,7 @@ public class User {
      * @param disableLevelTimer The flag indicating whether the level timer is disabled.
      */
     public void setDisableLevelTimer(boolean disableLevelTimer) {
+        dirty |= this.disableLevelTimer != disableLevelTimer;
         this.disableLevelTimer = disableLevelTimer;
     }
 
@@ -372,6 +390,7 @@ public class User {
      * @param disableRunTimer The flag indicating whether the run timer is disabled.
      */
     public void setDisableRunTimer(boolean disableRunTimer) {
+        dirty |= this.disableRunTimer != disableRunTimer;
         this.disableRunTimer = disableRunTimer;
     }
 
@@ -381,6 +400,7 @@ public class User {
      * @param unlHealth The flag indicating whether the user has unlimited health.
      */
     public void setUnlHealth(boolean unlHealth) {
+        dirty |= this.unlHealth != unlHealth;
         this.unlHealth = unlHealth;
     }
 
@@ -475,6 +495,7 @@ public class User {
      * @param vol The master volume setting to set.
      */
     public void setMasterVolume(int vol) {
+        dirty |= this.masterVolume != vol;
         this.masterVolume = vol;
     }
 
@@ -484,6 +505,7 @@ public class User {
      * @param vol The music volume setting to set.
      */
     public void setMusicVolume(int vol) {
+        dirty |= this.musicVolume != vol;
         this.musicVolume = vol;
     }
 
@@ -493,6 +515,25 @@ public class User {
      * @param vol The sound effects volume setting to set.
      */
     public void setSfxVolume(int vol) {
+        dirty |= this.sfxVolume != vol;
         this.sfxVolume = vol;
     }
+
+    /**
+     * Checks whether this user has changed since it was last saved.
+     *
+     * @return True if the user has unsaved changes, false otherwise.
+     */
+    @Override
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Marks this user as saved.
+     */
+    @Override
+    public void markClean() {
+        dirty = false;
+    }
 }
@@ -0,0 +1,318 @@
+package com.cs2212.cardbound.system;
+
+import com.cs2212.cardbound.gameplay.GameSave;
+import com.cs2212.cardbound.gameplay.User;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * The part of a {@link SaveRepository} that keeps records in memory once they have been read.
+ * <br><br>
+ * A backend only has to index its stored users by username and ID when it loads, and to read single records or every
+ * record on demand. This class keeps the records that have been read in hash maps by user ID and by username, so that
+ * finding a user or game save a second time never touches the disk, and hands out the same object every time. Game
+ * saves that still store their cards in full are converted to card ids as they are read, so they are written in the
+ * smaller form on the next save.
+ * @version 1.0
+ */
+abstract class AbstractSaveRepository implements SaveRepository {
+
+    /**
+     * Every user, or null until {@link #getUsers()} reads them all
+     */
+    private List<User> users;
+    /**
+     * Every game save, or null until {@link #getGameSaves()} reads them all
+     */
+    private List<GameSave> gameSaves;
+    /**
+     * Every user read so far, by user ID. Holds the same objects as users once they have been read.
+     */
+    private final Map<Integer, User> usersById = new LinkedHashMap<>();
+    /**
+     * Every user read so far, by username, so that logging in again never searches for the user
+     */
+    private final Map<String, User> usersByName = new HashMap<>();
+    /**
+     * Every game save read so far, by user ID. Holds the same objects as gameSaves once they have been read.
+     */
+    private final Map<Integer, GameSave> savesById = new LinkedHashMap<>();
+    /**
+     * The ID of the first user with each username, covering every user whether they have been read or not
+     */
+    private final Map<String, Integer> userIdsByName = new HashMap<>();
+    /**
+     * The IDs of the other users with each username that more than one user has
+     */
+    private final Map<String, List<Integer>> sharedUserIds = new HashMap<>();
+    /**
+     * The ID given to the next user created
+     */
+    private int nextUserId;
+
+    /**
+     * Reads one stored user.
+     * @param userID the user's ID
+     * @return the user, or null if no user with that ID is stored
+     * @throws IOException if the stored data cannot be read
+     */
+    protected abstract User readUser(int userID) throws IOException;
+
+    /**
+     * Reads one stored game save.
+     * @param userID the ID of the game save's user
+     * @return the game save, or null if no game save for that user is stored
+     * @throws IOException if the stored data cannot be read
+     */
+    protected abstract GameSave readGameSave(int userID) throws IOException;
+
+    /**
+     * Reads every stored user.
+     * @return the users, in the order they were stored
+     * @throws IOException if the stored data cannot be read
+     */
+    protected abstract List<User> readUsers() throws IOException;
+
+    /**
+     * Reads every stored game save.
+     * @return the game saves, in the order they were stored
+     * @throws IOException if the stored data cannot be read
+     */
+    protected abstract List<GameSave> readGameSaves() throws IOException;
+
+    /**
+     * Forgets every record in memory and every indexed username, before the stored data is loaded again.
+     */
+    protected void reset() {
+        users = null;
+        gameSaves = null;
+        usersById.clear();
+        usersByName.clear();
+        savesById.clear();
+        userIdsByName.clear();
+        sharedUserIds.clear();
+        nextUserId = 0;
+    }
+
+    /**
+     * Adds a stored user that hasn't been read yet to the username index.
+     * @param username the user's username
+     * @param userID the user's ID
+     */
+    protected void indexUser(String username, int userID) {
+        Integer firstID = userIdsByName.putIfAbsent(username, userID);
+        if (firstID != null && firstID != userID) {
+            List<Integer> otherIDs = sharedUserIds.computeIfAbsent(username, name -> new ArrayList<>());
+            if (!otherIDs.contains(userID))
+                otherIDs.add(userID);
+        }
+        nextUserId = Math.max(nextUserId, userID + 1);
+    }
+
+    /**
+     * Makes sure new users are given IDs after a stored user ID, for stored records with no username to index.
+     * @param userID the stored user ID
+     */
+    protected void reserveUserId(int userID) {
+        nextUserId = Math.max(nextUserId, userID + 1);
+    }
+
+    /**
+     * Gets every user that has been read so far, which are the only users that can have changed.
+     * @return the users in memory
+     */
+    protected Collection<User> getLoadedUsers() {
+        return usersById.values();
+    }
+
+    /**
+     * Gets every game save that has been read so far, which are the only game saves that can have changed.
+     * @return the game saves in memory
+     */
+    protected Collection<GameSave> getLoadedGameSaves() {
+        return savesById.values();
+    }
+
+    @Override
+    public User findUser(String username, String password) {
+        User user = usersByName.get(username);
+        if (user != null && user.getPassword().equals(password))
+            return user;
+
+        // Otherwise check every user with that username, since users with the same username can have different passwords
+        Integer firstID = userIdsByName.get(username);
+        if (firstID == null)
+            return null;
+        List<Integer> userIDs = new ArrayList<>();
+        userIDs.add(firstID);
+        userIDs.addAll(sharedUserIds.getOrDefault(username, List.of()));
+        for (int userID : userIDs) {
+            User other = getUser(userID);
+            if (other != null && other != user && other.getPassword().equals(password))
+                return other;
+        }
+        return null;
+    }
+
+    @Override
+    public User getUser(int userID) {
+        User user = usersById.get(userID);
+        if (user == null && users == null) {
+            try {
+                user = readUser(userID);
+                if (user != null) {
+                    usersById.put(userID, user);
+                    usersByName.putIfAbsent(user.getUsername(), user);
+                }
+            } catch (IOException e) {
+                e.printStackTrace(); // catch any exceptions gracefully and log them to output console
+            }
+        }
+        return user;
+    }
+
+    @Override
+    public GameSave getGameSave(int userID) {
+        GameSave save = savesById.get(userID);
+        if (save == null && gameSaves == null) {
+            try {
+                save = readGameSave(userID);
+                if (save != null) {
+                    save.migrateCards();
+                    savesById.put(userID, save);
+                }
+            } catch (IOException e) {
+                e.printStackTrace(); // catch any exceptions gracefully and log them to output console
+            }
+        }
+        return save;
+    }
+
+    @Override
+    public List<User> getUsers() {
+        if (users != null)
+            return users;
+        try {
+            users = merge(readUsers(), usersById, User::getUserID);
+            for (User user : users)
+                usersByName.putIfAbsent(user.getUsername(), user);
+        } catch (IOException e) {
+            e.printStackTrace(); // catch any exceptions gracefully and log them to output console
+            return new ArrayList<>(usersById.values());
+        }
+        return users;
+    }
+
+    /**
+     * Gets every game save, reading the ones that haven't been read yet.
+     * @return every game save
+     */
+    List<GameSave> getGameSaves() {
+        if (gameSaves != null)
+            return gameSaves;
+        try {
+            List<GameSave> stored = readGameSaves();
+            stored.forEach(GameSave::migrateCards);
+            gameSaves = merge(stored, savesById, GameSave::getUserId);
+        } catch (IOException e) {
+            e.printStackTrace(); // catch any exceptions gracefully and log them to output console
+            return new ArrayList<>(savesById.values());
+        }
+        return gameSaves;
+    }
+
+    /**
+     * Combines the records read from storage with the ones already in memory. A record already in memory is used in
+     * place of its stored copy, since it may have changed, and records that haven't been stored yet go at the end.
+     * @param records the records read from storage, which are updated in place
+     * @param loaded the records already in memory, by user ID, which every record is added to
+     * @param idOf gets the user ID of a record
+     * @param <T> the type of record
+     * @return the combined records
+     */
+    private static <T> List<T> merge(List<T> records, Map<Integer, T> loaded, ToIntFunction<T> idOf) {
+        Map<Integer, T> remaining = new LinkedHashMap<>(loaded);
+        for (int i = 0; i < records.size(); i++) {
+            int id = idOf.applyAsInt(records.get(i));
+            T inMemory = remaining.remove(id);
+            if (inMemory != null)
+                records.set(i, inMemory);
+            else
+                loaded.putIfAbsent(id, records.get(i));
+        }
+        records.addAll(remaining.values());
+        return records;
+    }
+
+    @Override
+    public Map<Integer, String> getUsernames() {
+        Map<Integer, String> usernames = new TreeMap<>();
+        userIdsByName.forEach((username, userID) -> usernames.put(userID, username));
+        sharedUserIds.forEach((username, userIDs) -> userIDs.forEach(userID -> usernames.put(userID, username)));
+        return usernames;
+    }
+
+    @Override
+    public User getLoadedUser(int userID) {
+        return usersById.get(userID);
+    }
+
+    /**
+     * Reads a page of stored users one at a time. Backends that can read a whole page in one pass override this, and
+     * every backend's {@link #readUser(int)} must be safe to call from a background thread for this to be.
+     * @param userIDs the IDs of the users on the page
+     * @return the stored users in the same order, with null for any user that isn't stored yet
+     * @throws IOException if the stored data cannot be read
+     */
+    @Override
+    public List<User> readUserPage(List<Integer> userIDs) throws IOException {
+        List<User> page = new ArrayList<>(userIDs.size());
+        for (int userID : userIDs)
+            page.add(readUser(userID));
+        return page;
+    }
+
+    @Override
+    public int nextUserId() {
+        return nextUserId;
+    }
+
+    @Override
+    public void addUser(User user) {
+        int id = user.getUserID();
+        String username = user.getUsername();
+        User replaced = usersById.put(id, user);
+        if (users != null) {
+            if (replaced != null)
+                users.set(users.indexOf(replaced), user);
+            else
+                users.add(user);
+        }
+
+        // Keep the username indexes pointing at the newest copy of each user
+        User first = usersByName.get(username);
+        if (first == null || first == replaced)
+            usersByName.put(username, user);
+        indexUser(username, id);
+    }
+
+    @Override
+    public void addGameSave(GameSave save) {
+        save.migrateCards();
+        GameSave replaced = savesById.put(save.getUserId(), save);
+        if (gameSaves != null) {
+            if (replaced != null)
+                gameSaves.set(gameSaves.indexOf(replaced), save);
+            else
+                gameSaves.add(save);
+        }
+    }
+}
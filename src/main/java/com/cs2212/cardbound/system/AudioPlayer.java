@@ -1,6 +1,7 @@
 package com.cs2212.cardbound.system;
 
 import com.cs2212.cardbound.MainStage;
+import com.cs2212.cardbound.gameplay.GameRandom;
 import javafx.animation.KeyFrame;
 import javafx.animation.KeyValue;
 import javafx.animation.Timeline;
@@ -206,14 +207,14 @@ public class AudioPlayer {
      * Plays a player attack sound effect at random
      */
     public static void playPlayerAttack() {
-        new AudioClip(Objects.requireNonNull(MainStage.class.getResource("audio/sfx/player/attack/hit" + (int) (Math.random() * 30 + 1) + ".wav")).toExternalForm()).play((sfxVolume.get() / 100f) * (masterVolume.get() / 100f));
+        new AudioClip(Objects.requireNonNull(MainStage.class.getResource("audio/sfx/player/attack/hit" + GameRandom.cosmetic().nextInt(1, 31) + ".wav")).toExternalForm()).play((sfxVolume.get() / 100f) * (masterVolume.get() / 100f));
     }
 
     /**
      * Plays a player hurt sound effect at random
      */
     public static void playPlayerHurt() {
-        new AudioClip(Objects.requireNonNull(MainStage.class.getResource("audio/sfx/player/hurt/player_hurt" + (int) (Math.random() * 4 + 1) + ".wav")).toExternalForm()).play((sfxVolume.get() / 100f) * (masterVolume.get() / 100f));
+        new AudioClip(Objects.requireNonNull(MainStage.class.getResource("audio/sfx/player/hurt/player_hurt" + GameRandom.cosmetic().nextInt(1, 5) + ".wav")).toExternalForm()).play((sfxVolume.get() / 100f) * (masterVolume.get() / 100f));
     }
 
     /**
@@ -234,7 +235,7 @@ public class AudioPlayer {
      * Plays an enemy attack sound effect at random
      */
     public static void playEnemyHurt() {
-        new AudioClip(Objects.requireNonNull(MainStage.class.getResource("audio/sfx/enemy/hurt/enemy_hurt" + (int) (Math.random() * 8 + 1) + ".wav")).toExternalForm()).play((sfxVolume.get() / 100f) * (masterVolume.get() / 100f));
+        new AudioClip(Objects.requireNonNull(MainStage.class.getResource("audio/sfx/enemy/hurt/enemy_hurt" + GameRandom.cosmetic().nextInt(1, 9) + ".wav")).toExternalForm()).play((sfxVolume.get() / 100f) * (masterVolume.get() / 100f));
     }
 
     /**
@@ -255,7 +256,7 @@ public class AudioPlayer {
      * Plays a boss hurt sound effect at random
      */
     public static void playBossHurt() {
-        new AudioClip(Objects.requireNonNull(MainStage.class.getResource("audio/sfx/boss/hurt/boss_hurt" + (int) (Math.random() * 9 + 1) + ".wav")).toExternalForm()).play((sfxVolume.get() / 100f) * (masterVolume.get() / 100f));
+        new AudioClip(Objects.requireNonNull(MainStage.class.getResource("audio/sfx/boss/hurt/boss_hurt" + GameRandom.cosmetic().nextInt(1, 10) + ".wav")).toExternalForm()).play((sfxVolume.get() / 100f) * (masterVolume.get() / 100f));
     }
 
     /**
@@ -0,0 +1,295 @@
+package com.cs2212.cardbound.system;
+
+import com.cs2212.cardbound.gameplay.User;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Class-wide totals of every user's statistics for the instructor mode screen, kept up to date as runs end instead of
+ * being worked out from every user each time the screen opens.
+ * <br><br>
+ * Each total is streamed: a user's statistics are added when they are first seen, and when they change the old values
+ * are taken out and the new ones put in. Best scores are counted, summed and given a lowest and highest value, and are
+ * also added to a {@link QuantileSketch} so that the median or any other percentile can be read without sorting them.
+ * The highest level each user cleared is counted in a histogram, and playtime is summed. Reading any of them costs the
+ * same however many users there are.
+ * <br><br>
+ * To take out a user's old values, the values last counted for each user are kept in arrays by user ID, which is only a
+ * few bytes per user. The same arrays are scanned to find the new lowest or highest best score in the rare case that
+ * the only user with it moves away from it.
+ * @version 1.0
+ */
+final class ClassStatistics {
+
+    /**
+     * A quantile sketch in the style of DDSketch. Values are counted in buckets whose bounds grow by a constant factor,
+     * so any percentile is found to within {@link #RELATIVE_ACCURACY} of its true value with a few hundred counters
+     * however many values are added, and a value can be taken out again as easily as it was added.
+     */
+    private static final class QuantileSketch {
+        /**
+         * The most a percentile can be off by, relative to its true value
+         */
+        private static final double RELATIVE_ACCURACY = 0.01;
+        /**
+         * The factor each bucket's bounds grow by
+         */
+        private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+        private static final double LOG_GAMMA = Math.log(GAMMA);
+
+        /**
+         * The number of values of 0 or less, which have no bucket
+         */
+        private int zeroCount;
+        /**
+         * The number of values in each bucket, where bucket i holds the values above GAMMA^(i-1) up to GAMMA^i
+         */
+        private int[] counts = new int[64];
+
+        /**
+         * Adds or takes out a value.
+         * @param value the value
+         * @param delta 1 to add the value, or -1 to take it out
+         */
+        private void add(int value, int delta) {
+            if (value <= 0) {
+                zeroCount += delta;
+                return;
+            }
+            int bucket = (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+            if (bucket >= counts.length)
+                counts = Arrays.copyOf(counts, Math.max(bucket + 1, counts.length * 2));
+            counts[bucket] += delta;
+        }
+
+        /**
+         * Finds the value at a quantile.
+         * @param quantile the quantile, from 0 to 1
+         * @param total the number of values in the sketch
+         * @return the value, to within the relative accuracy, or 0 if the sketch is empty
+         */
+        private int valueAt(double quantile, int total) {
+            long rank = (long) Math.floor(quantile * (total - 1));
+            long seen = zeroCount;
+            if (rank < seen)
+                return 0;
+            for (int bucket = 0; bucket < counts.length; bucket++) {
+                seen += counts[bucket];
+                if (rank < seen)
+                    // The middle of the bucket, which is within the relative accuracy of every value in it
+                    return (int) Math.round(2 * Math.pow(GAMMA, bucket) / (GAMMA + 1));
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Whether each user ID has been counted
+     */
+    private final BitSet counted = new BitSet();
+    /**
+     * The best score last counted for each user, by user ID
+     */
+    private int[] bestScores = new int[64];
+    /**
+     * The highest level cleared last counted for each user, by user ID
+     */
+    private int[] levelsCleared = new int[64];
+    /**
+     * The playtime last counted for each user, by user ID
+     */
+    private int[] playtimes = new int[64];
+
+    /**
+     * The number of users counted
+     */
+    private int count;
+    /**
+     * The sum of every user's best score
+     */
+    private long bestScoreSum;
+    /**
+     * The lowest best score, if rangeStale is false
+     */
+    private int lowestBestScore;
+    /**
+     * The highest best score, if rangeStale is false
+     */
+    private int highestBestScore;
+    /**
+     * Whether the only user with the lowest or highest best score moved away from it, so they must be found again
+     */
+    private boolean rangeStale;
+    /**
+     * The distribution of best scores
+     */
+    private final QuantileSketch bestScoreSketch = new QuantileSketch();
+    /**
+     * The number of users whose highest level cleared is each level, by level
+     */
+    private int[] levelCounts = new int[16];
+    /**
+     * The sum of every user's playtime
+     */
+    private long playtimeSum;
+
+    /**
+     * Works out the statistics of a list of users.
+     * @param users the users
+     * @return the statistics
+     */
+    static ClassStatistics of(Iterable<User> users) {
+        ClassStatistics statistics = new ClassStatistics();
+        for (User user : users)
+            statistics.update(user);
+        return statistics;
+    }
+
+    /**
+     * Adds a user, or updates them if their statistics changed.
+     * @param user the user
+     */
+    void update(User user) {
+        update(user.getUserID(), user.getBestScore(), user.getMostLevelsCleared(), user.getTotalPlaytime());
+    }
+
+    /**
+     * Adds a user, or updates them if their statistics changed.
+     * @param userID the user's ID
+     * @param bestScore the user's best score
+     * @param mostLevelsCleared the highest level the user cleared
+     * @param totalPlaytime the user's playtime
+     */
+    void update(int userID, int bestScore, int mostLevelsCleared, int totalPlaytime) {
+        if (counted.get(userID)) {
+            if (bestScores[userID] == bestScore && levelsCleared[userID] == mostLevelsCleared && playtimes[userID] == totalPlaytime)
+                return;
+            remove(userID);
+        } else if (userID >= bestScores.length) {
+            int length = Math.max(userID + 1, bestScores.length * 2);
+            bestScores = Arrays.copyOf(bestScores, length);
+            levelsCleared = Arrays.copyOf(levelsCleared, length);
+            playtimes = Arrays.copyOf(playtimes, length);
+        }
+
+        counted.set(userID);
+        bestScores[userID] = bestScore;
+        levelsCleared[userID] = mostLevelsCleared;
+        playtimes[userID] = totalPlaytime;
+
+        if (count == 0) {
+            lowestBestScore = bestScore;
+            highestBestScore = bestScore;
+        } else {
+            lowestBestScore = Math.min(lowestBestScore, bestScore);
+            highestBestScore = Math.max(highestBestScore, bestScore);
+        }
+        count++;
+        bestScoreSum += bestScore;
+        bestScoreSketch.add(bestScore, 1);
+        int level = Math.max(0, mostLevelsCleared);
+        if (level >= levelCounts.length)
+            levelCounts = Arrays.copyOf(levelCounts, Math.max(level + 1, levelCounts.length * 2));
+        levelCounts[level]++;
+        playtimeSum += totalPlaytime;
+    }
+
+    /**
+     * Takes a user's last counted statistics out of every total.
+     * @param userID the user's ID
+     */
+    private void remove(int userID) {
+        int bestScore = bestScores[userID];
+        counted.clear(userID);
+        count--;
+        bestScoreSum -= bestScore;
+        bestScoreSketch.add(bestScore, -1);
+        levelCounts[Math.max(0, levelsCleared[userID])]--;
+        playtimeSum -= playtimes[userID];
+        // Someone else may share the lowest or highest best score, but only a scan can tell
+        if (bestScore == lowestBestScore || bestScore == highestBestScore)
+            rangeStale = true;
+    }
+
+    /**
+     * Finds the lowest and highest best score again from the values last counted for each user.
+     */
+    private void findRange() {
+        if (!rangeStale)
+            return;
+        lowestBestScore = Integer.MAX_VALUE;
+        highestBestScore = Integer.MIN_VALUE;
+        for (int userID = counted.nextSetBit(0); userID >= 0; userID = counted.nextSetBit(userID + 1)) {
+            lowestBestScore = Math.min(lowestBestScore, bestScores[userID]);
+            highestBestScore = Math.max(highestBestScore, bestScores[userID]);
+        }
+        rangeStale = false;
+    }
+
+    /**
+     * Gets the number of users counted.
+     * @return the number of users
+     */
+    int getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the average best score.
+     * @return the average, or 0 if there are no users
+     */
+    double getAverageBestScore() {
+        return count > 0 ? (double) bestScoreSum / count : 0;
+    }
+
+    /**
+     * Gets the lowest best score.
+     * @return the lowest best score, or 0 if there are no users
+     */
+    int getLowestBestScore() {
+        findRange();
+        return count > 0 ? lowestBestScore : 0;
+    }
+
+    /**
+     * Gets the highest best score.
+     * @return the highest best score, or 0 if there are no users
+     */
+    int getHighestBestScore() {
+        findRange();
+        return count > 0 ? highestBestScore : 0;
+    }
+
+    /**
+     * Gets the best score at a percentile, to within 1% of the true value.
+     * @param percentile the percentile, from 0 to 100
+     * @return the best score, or 0 if there are no users
+     */
+    int getBestScorePercentile(double percentile) {
+        if (count == 0)
+            return 0;
+        // The lowest and highest are known exactly, and the sketch's estimate must lie between them
+        int estimate = bestScoreSketch.valueAt(Math.min(Math.max(percentile / 100, 0), 1), count);
+        return Math.min(Math.max(estimate, getLowestBestScore()), getHighestBestScore());
+    }
+
+    /**
+     * Gets the number of users whose highest level cleared is each level.
+     * @return the number of users by level, up to the highest level any user cleared
+     */
+    int[] getLevelCounts() {
+        int highestLevel = levelCounts.length - 1;
+        while (highestLevel > 0 && levelCounts[highestLevel] == 0)
+            highestLevel--;
+        return Arrays.copyOf(levelCounts, highestLevel + 1);
+    }
+
+    /**
+     * Gets the playtime of every user added together.
+     * @return the total playtime
+     */
+    long getTotalPlaytime() {
+        return playtimeSum;
+    }
+}
@@ -0,0 +1,499 @@
+package com.cs2212.cardbound.system;
+
+import com.cs2212.cardbound.gameplay.GameSave;
+import com.cs2212.cardbound.gameplay.User;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.CRC32;
+
+/**
+ * A save repository kept in a single log-structured file with its own index, for installs with a lot of users.
+ * <br><br>
+ * Each save adds a transaction to the end of the file: one line per changed record, followed by a commit line giving
+ * the number of records in the transaction. A record line holds its kind ({@code U} for a user, {@code G} for a game
+ * save), a CRC32 of its JSON, and the JSON itself. Nothing is ever changed in place, so a newer copy of a record simply
+ * replaces the older one.
+ * <br><br>
+ * Loading reads the file once and keeps the position of the newest copy of every record, along with each username, so
+ * a single record is read with one seek. Records saved but still queued on the {@link SaveWorker} are read from memory
+ * until they reach the file, so a read never waits for the worker. A transaction is only applied once its commit line has been read, so a save
+ * cut short by a crash is dropped whole, and the unfinished end of the file is cut off. When most of the file is old
+ * copies of records, loading rewrites it with only the newest ones. If there is no store yet, the JSON save files are
+ * copied into it.
+ * @version 1.0
+ */
+final class FileStoreSaveRepository extends AbstractSaveRepository {
+
+    /**
+     * The kind of line holding a user
+     */
+    private static final char USER = 'U';
+    /**
+     * The kind of line holding a game save
+     */
+    private static final char GAME_SAVE = 'G';
+    /**
+     * The kind of line ending a transaction
+     */
+    private static final char COMMIT = 'C';
+    /**
+     * The number of stored records below which the file is never compacted
+     */
+    private static final int COMPACTION_MINIMUM = 256;
+
+    /**
+     * A record line read while loading that belongs to a transaction not yet committed
+     */
+    private record PendingRecord(char kind, int userID, String username, long position) {}
+
+    /**
+     * The Gson instance used to read and write records
+     */
+    private final Gson gson;
+    /**
+     * The directory holding the store, and the JSON save files it is first filled from
+     */
+    private final Path directory;
+    /**
+     * The store file
+     */
+    private final Path storeFile;
+    /**
+     * The position of the newest copy of each user in the store file, by user ID, in the order they were first stored.
+     * Also read by table pages being read in the background, so it is synchronized.
+     */
+    private final Map<Integer, Long> userPositions = Collections.synchronizedMap(new LinkedHashMap<>());
+    /**
+     * The position of the newest copy of each game save in the store file, by user ID
+     */
+    private final Map<Integer, Long> gameSavePositions = new LinkedHashMap<>();
+    /**
+     * The length of the store file, including every transaction queued on the {@link SaveWorker}
+     */
+    private long storeLength;
+    /**
+     * The record lines queued on the {@link SaveWorker} that may not have reached the store file yet, without their
+     * line breaks, by the position they will be written at. Also read by table pages being read in the background.
+     */
+    private final ConcurrentSkipListMap<Long, String> queuedLines = new ConcurrentSkipListMap<>();
+
+    /**
+     * Creates a repository kept in a directory.
+     * @param gson the Gson instance used to read and write records
+     * @param directory the directory holding the store file
+     */
+    FileStoreSaveRepository(Gson gson, Path directory) {
+        this.gson = gson;
+        this.directory = directory;
+        this.storeFile = directory.resolve("SaveStore.db");
+    }
+
+    @Override
+    public void load() throws IOException {
+        // Make sure any transactions still being written have reached the disk before reading them back
+        SaveWorker.flush();
+        reset();
+        userPositions.clear();
+        gameSavePositions.clear();
+        queuedLines.clear();
+        storeLength = 0;
+
+        if (!Files.isRegularFile(storeFile))
+            importJsonSaveFiles();
+        if (!Files.isRegularFile(storeFile))
+            return;
+
+        int storedRecords = scan();
+        if (storedRecords >= COMPACTION_MINIMUM && storedRecords > 2 * (userPositions.size() + gameSavePositions.size())) {
+            compact();
+            reset();
+            userPositions.clear();
+            gameSavePositions.clear();
+            scan();
+        }
+    }
+
+    /**
+     * Reads the store file from the start, indexing every committed record and cutting off an unfinished transaction.
+     * @return the number of committed record lines in the file, counting old copies
+     * @throws IOException if the file cannot be read
+     */
+    private int scan() throws IOException {
+        List<PendingRecord> pending = new ArrayList<>();
+        int storedRecords = 0;
+        long position = 0;
+        long committedLength = 0;
+
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(storeFile))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                byte[] bytes = line.toByteArray();
+                line.reset();
+                long lineStart = position;
+                position += bytes.length + 1;
+
+                String text = new String(bytes, StandardCharsets.UTF_8);
+                if (text.isEmpty())
+                    break;
+                char kind = text.charAt(0);
+                if (kind == COMMIT) {
+                    // Apply the transaction only if every one of its records was read intact
+                    if (!text.equals(COMMIT + " " + pending.size()))
+                        break;
+                    for (PendingRecord record : pending)
+                        apply(record);
+                    storedRecords += pending.size();
+                    pending.clear();
+                    committedLength = position;
+                } else {
+                    String json = checkedJson(text);
+                    if (json == null)
+                        break;
+                    pending.add(index(kind, json, lineStart));
+                }
+            }
+        }
+
+        // Cut off a transaction that was never committed, so the next one starts on a clean line
+        if (committedLength < Files.size(storeFile)) {
+            try (FileChannel channel = FileChannel.open(storeFile, StandardOpenOption.WRITE)) {
+                channel.truncate(committedLength);
+            }
+        }
+        storeLength = committedLength;
+        return storedRecords;
+    }
+
+    /**
+     * Reads the user ID and username from a record line, without converting the whole record.
+     * @param kind the kind of record
+     * @param json the record's JSON
+     * @param position the position of the line in the store file
+     * @return the record, waiting for its transaction to be committed
+     * @throws IOException if the JSON cannot be read
+     */
+    private PendingRecord index(char kind, String json, long position) throws IOException {
+        String idName = kind == USER ? "userID" : "userId";
+        int userID = 0;
+        String username = null;
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (name.equals(idName)) {
+                    userID = reader.nextInt();
+                } else if (kind == USER && name.equals("username") && reader.peek() != JsonToken.NULL) {
+                    username = reader.nextString();
+                } else {
+                    reader.skipValue();
+                }
+            }
+        }
+        return new PendingRecord(kind, userID, username, position);
+    }
+
+    /**
+     * Makes a committed record the newest copy of its user or game save.
+     * @param record the record
+     */
+    private void apply(PendingRecord record) {
+        if (record.kind() == USER) {
+            userPositions.put(record.userID(), record.position());
+            if (record.username() != null)
+                indexUser(record.username(), record.userID());
+        } else {
+            gameSavePositions.put(record.userID(), record.position());
+        }
+    }
+
+    /**
+     * Checks a record line against its CRC.
+     * @param line the line, without its line break
+     * @return the record's JSON, or null if the line is damaged
+     */
+    private static String checkedJson(String line) {
+        if (line.length() < 4 || (line.charAt(0) != USER && line.charAt(0) != GAME_SAVE) || line.charAt(1) != ' ')
+            return null;
+        int space = line.indexOf(' ', 2);
+        if (space < 0)
+            return null;
+        String json = line.substring(space + 1);
+        try {
+            return Long.parseLong(line.substring(2, space), 16) == crcOf(json) ? json : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the CRC32 of a record's JSON.
+     * @param json the JSON
+     * @return the CRC32
+     */
+    private static long crcOf(String json) {
+        CRC32 crc = new CRC32();
+        crc.update(json.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    /**
+     * Converts a record to a line of the store file.
+     * @param kind the kind of record
+     * @param record the record
+     * @return the line, ending with a line break
+     */
+    private String line(char kind, Object record) {
+        String json = gson.toJson(record);
+        return kind + " " + Long.toHexString(crcOf(json)) + " " + json + "\n";
+    }
+
+    /**
+     * Copies the users and game saves from the JSON save files into a new store, if there are any.
+     * @throws IOException if the JSON save files cannot be read or the store cannot be written
+     */
+    private void importJsonSaveFiles() throws IOException {
+        JsonSaveRepository json = new JsonSaveRepository(gson, directory);
+        json.load();
+        List<User> users = json.getUsers();
+        List<GameSave> saves = json.getGameSaves();
+        if (users.isEmpty() && saves.isEmpty())
+            return;
+
+        StringBuilder transaction = new StringBuilder();
+        for (User user : users)
+            transaction.append(line(USER, user));
+        for (GameSave save : saves)
+            transaction.append(line(GAME_SAVE, save));
+        transaction.append(COMMIT).append(' ').append(users.size() + saves.size()).append('\n');
+        SaveWorker.writeAtomically(storeFile, transaction.toString());
+    }
+
+    /**
+     * Rewrites the store file with only the newest copy of every record, as one transaction.
+     * @throws IOException if the store cannot be read or written
+     */
+    private void compact() throws IOException {
+        StringBuilder transaction = new StringBuilder();
+        try (FileChannel channel = FileChannel.open(storeFile, StandardOpenOption.READ)) {
+            for (long position : userPositions.values())
+                transaction.append(readLine(channel, position)).append('\n');
+            for (long position : gameSavePositions.values())
+                transaction.append(readLine(channel, position)).append('\n');
+        }
+        transaction.append(COMMIT).append(' ').append(userPositions.size() + gameSavePositions.size()).append('\n');
+        SaveWorker.writeAtomically(storeFile, transaction.toString());
+    }
+
+    @Override
+    public void save() {
+        forgetWrittenLines();
+        StringBuilder transaction = new StringBuilder();
+        long position = storeLength;
+        int records = 0;
+
+        // Only records that have been read can have changed
+        for (User user : getLoadedUsers()) {
+            if (user.isDirty()) {
+                String line = line(USER, user);
+                queuedLines.put(position, line.substring(0, line.length() - 1));
+                userPositions.put(user.getUserID(), position);
+                position += line.getBytes(StandardCharsets.UTF_8).length;
+                transaction.append(line);
+                user.markClean();
+                records++;
+            }
+        }
+        for (GameSave save : getLoadedGameSaves()) {
+            if (save.isDirty()) {
+                String line = line(GAME_SAVE, save);
+                queuedLines.put(position, line.substring(0, line.length() - 1));
+                gameSavePositions.put(save.getUserId(), position);
+                position += line.getBytes(StandardCharsets.UTF_8).length;
+                transaction.append(line);
+                save.markClean();
+                records++;
+            }
+        }
+        if (records == 0)
+            return;
+
+        String commit = COMMIT + " " + records + "\n";
+        transaction.append(commit);
+        storeLength = position + commit.length();
+        SaveWorker.append(storeFile, transaction.toString());
+    }
+
+    /**
+     * Stops keeping the queued lines that the {@link SaveWorker} has written to the store file. Lines are written in
+     * order, so this stops at the first line the file doesn't hold all of yet. A line that could not be written is
+     * kept, so it can still be read until the store is loaded again.
+     */
+    private void forgetWrittenLines() {
+        if (queuedLines.isEmpty())
+            return;
+        try {
+            long size = Files.isRegularFile(storeFile) ? Files.size(storeFile) : 0;
+            for (Map.Entry<Long, String> line = queuedLines.firstEntry(); line != null; line = queuedLines.firstEntry()) {
+                if (line.getKey() + line.getValue().getBytes(StandardCharsets.UTF_8).length + 1 > size)
+                    break;
+                queuedLines.remove(line.getKey());
+            }
+        } catch (IOException e) {
+            e.printStackTrace(); // catch any exceptions gracefully and log them to output console
+        }
+    }
+
+    @Override
+    protected User readUser(int userID) throws IOException {
+        Long position = userPositions.get(userID);
+        return position != null ? readRecord(position, User.class) : null;
+    }
+
+    @Override
+    protected GameSave readGameSave(int userID) throws IOException {
+        Long position = gameSavePositions.get(userID);
+        return position != null ? readRecord(position, GameSave.class) : null;
+    }
+
+    @Override
+    public List<User> readUserPage(List<Integer> userIDs) throws IOException {
+        if (!Files.isRegularFile(storeFile))
+            return new ArrayList<>(Collections.nCopies(userIDs.size(), null));
+        List<User> page = new ArrayList<>(userIDs.size());
+        try (FileChannel channel = FileChannel.open(storeFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (int userID : userIDs) {
+                // A user saved since the page was asked for may not have reached the file yet, or only partly
+                Long position = userPositions.get(userID);
+                String line = position != null ? queuedLines.get(position) : null;
+                if (line == null && position != null && position < size)
+                    line = readLine(channel, position);
+                String json = line != null ? checkedJson(line) : null;
+                page.add(json != null ? gson.fromJson(json, User.class) : null);
+            }
+        }
+        return page;
+    }
+
+    @Override
+    protected List<User> readUsers() throws IOException {
+        return readRecords(userPositions, User.class);
+    }
+
+    @Override
+    protected List<GameSave> readGameSaves() throws IOException {
+        return readRecords(gameSavePositions, GameSave.class);
+    }
+
+    /**
+     * Reads the record whose line starts at a position in the store file.
+     * @param position the position of the line
+     * @param type the type of record
+     * @param <T> the type of record
+     * @return the record
+     * @throws IOException if the file cannot be read or the line is damaged
+     */
+    private <T> T readRecord(long position, Class<T> type) throws IOException {
+        String queued = queuedLines.get(position);
+        if (queued != null)
+            return parse(queued, type);
+        try (FileChannel channel = FileChannel.open(storeFile, StandardOpenOption.READ)) {
+            return parse(readLine(channel, position), type);
+        }
+    }
+
+    /**
+     * Reads the records whose lines start at a set of positions in the store file.
+     * @param positions the position of each record's line
+     * @param type the type of record
+     * @param <T> the type of record
+     * @return the records, in the order of the positions
+     * @throws IOException if the file cannot be read or a line is damaged
+     */
+    private <T> List<T> readRecords(Map<Integer, Long> positions, Class<T> type) throws IOException {
+        List<T> records = new ArrayList<>(positions.size());
+        if (positions.isEmpty())
+            return records;
+        // The file is only opened once a record isn't still queued, since it may not exist yet
+        FileChannel channel = null;
+        try {
+            for (long position : positions.values()) {
+                String line = queuedLines.get(position);
+                if (line == null) {
+                    if (channel == null)
+                        channel = FileChannel.open(storeFile, StandardOpenOption.READ);
+                    line = readLine(channel, position);
+                }
+                records.add(parse(line, type));
+            }
+        } finally {
+            if (channel != null)
+                channel.close();
+        }
+        return records;
+    }
+
+    /**
+     * Converts a record line back to its record.
+     * @param line the line
+     * @param type the type of record
+     * @param <T> the type of record
+     * @return the record
+     * @throws IOException if the line is damaged
+     */
+    private <T> T parse(String line, Class<T> type) throws IOException {
+        String json = checkedJson(line);
+        if (json == null)
+            throw new IOException(storeFile + " has a damaged record");
+        return gson.fromJson(json, type);
+    }
+
+    /**
+     * Reads the line starting at a position in the store file.
+     * @param channel the open store file
+     * @param position the position of the line
+     * @return the line, without its line break
+     * @throws IOException if the file cannot be read
+     */
+    private static String readLine(FileChannel channel, long position) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0)
+                return line.toString(StandardCharsets.UTF_8);
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (b == '\n')
+                    return line.toString(StandardCharsets.UTF_8);
+                line.write(b);
+            }
+            position += read;
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.cs2212.cardbound.system;
 
 import com.cs2212.cardbound.gameplay.Card;
+import com.cs2212.cardbound.gameplay.CardCatalog;
+import com.cs2212.cardbound.gameplay.DamageTable;
+import com.cs2212.cardbound.gameplay.GameRandom;
 import com.cs2212.cardbound.gameplay.Player;
 import javafx.animation.Animation;
 import javafx.animation.PauseTransition;
@@ -12,6 +15,7 @@ import javafx.scene.robot.Robot;
 import javafx.util.Duration;
 
 import java.util.ArrayList;
+import java.util.SplittableRandom;
 
 public class Gameplay {
 
@@ -67,10 +71,6 @@ public class Gameplay {
      * The current score
      */
     private static int score = 0;
-    /**
-     * The base score modifier that is added to the player's score value
-     */
-    public static final int BASE_SCORE_MODIFIER = 100;
     /**
      * The score multiplier that increases as the player progresses
      */
@@ -79,10 +79,22 @@ public class Gameplay {
      * The multiplier for the attack damage numbers on the cards
      */
     private static int cardMultiplier = 1;
+    /**
+     * The damage of every pair of cards at the current card multiplier, built when it is first needed
+     */
+    private static DamageTable damageTable;
     /**
      * The current level the player is on
      */
     private static int levelsCleared = 1;
+    /**
+     * The seed every hand of the current run is drawn from
+     */
+    private static long runSeed = GameRandom.newSeed();
+    /**
+     * The number of hands dealt in the current run
+     */
+    private static int handsDealt = 0;
     /**
      * A robot that gives the current location of the mouse on the screen
      */
@@ -256,6 +268,62 @@ public class Gameplay {
      * @param cardMultiplier the new given card multiplier
      */
     public static void setCardMultiplier(int cardMultiplier) {
+        // Drop the damage table when moving to a new tier so that it is rebuilt for the new multiplier
+        if (Gameplay.cardMultiplier != cardMultiplier)
+            damageTable = null;
         Gameplay.cardMultiplier = cardMultiplier;
     }
+
+    /**
+     * Gets the damage table for the current card multiplier, building it if it has not been built for this tier yet
+     * @return the damage table for the current card multiplier
+     */
+    public static DamageTable getDamageTable() {
+        if (damageTable == null || damageTable.getCardMultiplier() != cardMultiplier)
+            damageTable = new DamageTable(CardCatalog.getInstance(), cardMultiplier);
+        return damageTable;
+    }
+
+    /**
+     * Starts the random number state of a new run with a new seed
+     */
+    public static void startNewRun() {
+        runSeed = GameRandom.newSeed();
+        handsDealt = 0;
+    }
+
+    /**
+     * Gets the seed of the current run
+     * @return the current run's seed
+     */
+    public static long getRunSeed() {
+        return runSeed;
+    }
+
+    /**
+     * Gets the number of hands dealt in the current run
+     * @return the number of hands dealt
+     */
+    public static int getHandsDealt() {
+        return handsDealt;
+    }
+
+    /**
+     * Sets the random number state of the current run, such as when a saved run is loaded
+     * @param runSeed the run's seed
+     * @param handsDealt the number of hands already dealt in the run
+     */
+    public static void setRunState(long runSeed, int handsDealt) {
+        Gameplay.runSeed = runSeed;
+        Gameplay.handsDealt = handsDealt;
+    }
+
+    /**
+     * Gets the random number generator for the next hand of the current run. Each hand gets its own stream, so the
+     * same seed always deals the same hands in the same order.
+     * @return the random number generator for the next hand
+     */
+    public static SplittableRandom nextHandRandom() {
+        return GameRandom.stream(runSeed, handsDealt++);
+    }
 }
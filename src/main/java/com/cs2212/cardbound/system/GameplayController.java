@@ -3,7 +3,12 @@ package com.cs2212.cardbound.system;
 import com.cs2212.cardbound.MainStage;
 import com.cs2212.cardbound.SceneTools;
 import com.cs2212.cardbound.gameplay.Card;
+import com.cs2212.cardbound.gameplay.CardCatalog;
+import com.cs2212.cardbound.gameplay.CardInstance;
 import com.cs2212.cardbound.gameplay.Enemy;
+import com.cs2212.cardbound.gameplay.GameRandom;
+import com.cs2212.cardbound.gameplay.GameRules;
+import com.cs2212.cardbound.gameplay.HandSolver;
 import javafx.animation.*;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
@@ -32,16 +37,16 @@ import javafx.util.Duration;
 import java.io.IOException;
 import java.util.List;
 import java.util.Objects;
-import java.util.Collections;
+import java.util.SplittableRandom;
 
 //IMPORTS FOR CARD LOGIC
 import java.util.ArrayList;
 
+import static com.cs2212.cardbound.gameplay.Card.buildCard;
 import static com.cs2212.cardbound.gameplay.CardLogic.*;
 import static com.cs2212.cardbound.system.Gameplay.*;
 import static com.cs2212.cardbound.system.MainMenu.*;
 
-import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * A class that controls the GUI functionality of the Gameplay screen.
@@ -190,6 +195,22 @@ public class GameplayController {
      * The list of card data and information
      */
     private String[][] cardsDataList;
+    /**
+     * The random number generator the current hand was dealt and laid out with
+     */
+    private SplittableRandom handRandom;
+    /**
+     * The solution of the current hand, used to check the level can be cleared and to show hints
+     */
+    private HandSolver handSolution;
+    /**
+     * The cards in the current hand, in the order they were dealt
+     */
+    private Card[] handCards;
+    /**
+     * Whether the hint is currently shown
+     */
+    private boolean hintVisible = false;
     /**
      * The list of cards in the current hand
      */
@@ -203,7 +224,8 @@ public class GameplayController {
         Platform.runLater(this::postInit);
 
         // Load game protocol
-        if (MainMenu.getHasSavedGame()) {
+        boolean loadedSave = MainMenu.getHasSavedGame();
+        if (loadedSave) {
             MainMenu.setHasSavedGame(false);
             player.setHealth(currentGameSave.getNumLives());
             enemy.setMaxHealth(currentGameSave.getEnemyHp());
@@ -221,23 +243,37 @@ public class GameplayController {
             Gameplay.setTimePassed(currentGameSave.getRunTimer());
             Gameplay.setTimerValue(currentGameSave.getRunTimer());
             cardsDataList = currentGameSave.getCardsList();
+            // Continue the run's random number streams, saves from before runs were seeded get a new seed
+            if (currentGameSave.getRunSeed() != 0) {
+                Gameplay.setRunState(currentGameSave.getRunSeed(), currentGameSave.getHandsDealt());
+                // Replay the saved hand's draws so that the cards are laid out the same way they were
+                handRandom = GameRandom.stream(Gameplay.getRunSeed(), Gameplay.getHandsDealt() - 1);
+                generateCardIndexList(generateCardPools(handRandom), CardCatalog.getInstance().getPool(Gameplay.getLevelsCleared()), handRandom);
+            } else {
+                Gameplay.startNewRun();
+                handRandom = Gameplay.nextHandRandom();
+            }
         } else {
-            // Card data
-            int[] cardPoolChoices = generateCardPools(); // Get a list of which card pools to draw from
-            int[] cardIndexList = generateCardIndexList(cardPoolChoices); // Creates a list of indexes to draw from the card pool
-            cardsDataList = cardDataReader(cardIndexList); // Draws cards and their data from the pool
+            // Card data, drawn from this hand's stream of the run seed
+            handRandom = Gameplay.nextHandRandom();
+            int[] cardPoolChoices = generateCardPools(handRandom); // Get a list of which card pools to draw from
+            int[] cardIndexList = generateCardIndexList(cardPoolChoices, CardCatalog.getInstance().getPool(Gameplay.getLevelsCleared()), handRandom); // Creates a list of indexes to draw from the card pool
+            cardsDataList = CardCatalog.getInstance().getCardData(cardIndexList); // Draws cards and their data from the pool
         }
 
         // Set the player health to 4 if unlimited health is enabled
         if (unlimitedHealthToggled)
             player.setHealth(4);
 
+        // Deal the cards at the current card multiplier
+        CardInstance[] hand = CardCatalog.getInstance().deal(cardsDataList, Gameplay.getCardMultiplier());
+
         List<Integer> shuffledLocationList = shuffleLocations();
         // Test cards, keep locations though
-        buildCard(card0, cardsDataList[0], shuffledLocationList.get(0), -11);
-        buildCard(card1, cardsDataList[1], shuffledLocationList.get(1), -11);
-        buildCard(card2, cardsDataList[2], shuffledLocationList.get(2), -11);
-        buildCard(card3, cardsDataList[3], shuffledLocationList.get(3), -11);
+        buildCard(card0, hand[0], shuffledLocationList.get(0), -11);
+        buildCard(card1, hand[1], shuffledLocationList.get(1), -11);
+        buildCard(card2, hand[2], shuffledLocationList.get(2), -11);
+        buildCard(card3, hand[3], shuffledLocationList.get(3), -11);
 
         // Add all the current cards to the card list
         cardList.add(card0);
@@ -250,13 +286,30 @@ public class GameplayController {
         Gameplay.selectedCards.clear();
 
         // Make the enemy a boss if the level is a multiple of 5
-        if (Gameplay.getLevelsCleared() % 5 == 0) {
+        if (Gameplay.getLevelsCleared() % GameRules.BOSS_INTERVAL == 0) {
             enemy.setType("boss");
         }
 
         // Init enemy health and sprite
         enemySprite.setImage(enemy.getIdle());
-        enemy.setMaxHealth(calculateTotalDamage(card0,card1));
+        enemy.setMaxHealth(Gameplay.getDamageTable().getDamage(hand[0], hand[1]));
+
+        // Make sure the level can be cleared, a hand from an old or edited save may not be able to hit its enemy exactly
+        handCards = new Card[] {card0, card1, card2, card3};
+        handSolution = HandSolver.solve(Gameplay.getDamageTable(), hand, enemy.getMaxHealth());
+        if (!handSolution.isSolvable() || enemy.getMaxHealth() <= 0) {
+            enemy.setMaxHealth(handSolution.getMaxTotal());
+            handSolution = HandSolver.solve(Gameplay.getDamageTable(), hand, enemy.getMaxHealth());
+        }
+
+        // Checkpoint the run at the start of every new level. A checkpoint can't be continued, so it never takes the
+        // place of a run the player left with lives remaining, which stays the one to continue
+        if (!loadedSave && !currentGameSave.isResumable()) {
+            currentGameSave.setGameSave(player.getHealth(), Gameplay.getLevelsCleared(), Gameplay.getScore(), Gameplay.getTimerValue(), enemy.getMaxHealth(), cardsDataList);
+            currentGameSave.setRunState(Gameplay.getRunSeed(), Gameplay.getHandsDealt());
+            currentGameSave.setCheckpoint(true);
+            MainMenu.saveGame();
+        }
 
         // Show scene
         rootPane.setOpacity(0.0);
@@ -504,6 +557,11 @@ public class GameplayController {
                         }
                     }
                     break;
+                // Toggle the hint
+                case H:
+                    if (!Gameplay.isPaused && !Gameplay.isAttacking)
+                        toggleHint();
+                    break;
                 // Open pause menu
                 case ESCAPE:
                     if (!Gameplay.isAttacking) {
@@ -527,13 +585,24 @@ public class GameplayController {
             debugMenu.setVisible(false);
     }
 
+    /**
+     * Shows or hides a glow around the two cards that exactly defeat the enemy
+     */
+    private void toggleHint() {
+        hintVisible = !hintVisible;
+        if (handSolution.isSolvable()) {
+            handCards[handSolution.getFirst()].setHinted(hintVisible);
+            handCards[handSolution.getSecond()].setHinted(hintVisible);
+        }
+    }
+
     /**
      * This method is a helper method to create a random variation of the 4 card positions
      * @return the list in a shuffled state
      */
     private List<Integer> shuffleLocations() {
         List<Integer> locationsList = new ArrayList<>(List.of(104, 384, 664, 944));
-        Collections.shuffle(locationsList);
+        GameRandom.shuffle(locationsList, handRandom);
         return locationsList; // Returns the shuffled list
     }
 
@@ -727,15 +796,11 @@ public class GameplayController {
      */
     private void attackLogic() {
         // Set enemy health to new value
-        Card cardA = Gameplay.selectedCards.getFirst();
-        Card cardB = Gameplay.selectedCards.getLast();
+        CardInstance cardA = Gameplay.selectedCards.getFirst().getInstance();
+        CardInstance cardB = Gameplay.selectedCards.getLast().getInstance();
 
-        // Ensure that an attack card is always the first parameter
-        if (cardA.getType().getText().equals("attack")) {
-            enemy.setHealth(enemy.getMaxHealth() - calculateTotalDamage(cardA, cardB));
-        } else {
-            enemy.setHealth(enemy.getMaxHealth() - calculateTotalDamage(cardB, cardA));
-        }
+        // The damage table always puts the attack card first
+        enemy.setHealth(enemy.getMaxHealth() - Gameplay.getDamageTable().getDamage(cardA, cardB));
 
         // Change player health if enemy is still alive
         if (enemy.getHealth() > 0) {
@@ -1040,11 +1105,11 @@ public class GameplayController {
          */
         if (player.getHealth() >= 2) {
             playerGlow.setColor(Color.color(227f/255f, 180f/255f, 52f/255f, 0.7));
-            retryMessage.setText(retryMessagesYellow[ThreadLocalRandom.current().nextInt(MIN_MESSAGE, MAX_MESSAGE + 1)]);
+            retryMessage.setText(retryMessagesYellow[GameRandom.cosmetic().nextInt(MIN_MESSAGE, MAX_MESSAGE + 1)]);
         }
         else {
             playerGlow.setColor(Color.color(242f/255f, 78f/255f, 78f/255f, 0.7));
-            retryMessage.setText(retryMessagesRed[ThreadLocalRandom.current().nextInt(MIN_MESSAGE, MAX_MESSAGE + 1)]);
+            retryMessage.setText(retryMessagesRed[GameRandom.cosmetic().nextInt(MIN_MESSAGE, MAX_MESSAGE + 1)]);
         }
 
         playerGlow.setOffsetX(0f);
@@ -1189,15 +1254,15 @@ public class GameplayController {
         If the level completed was a boss level, reward the player with double points and multiply the score multiplier by 1.5
         Otherwise, add points normally.
          */
-        if (Gameplay.getLevelsCleared() % 5 == 0) {
+        if (Gameplay.getLevelsCleared() % GameRules.BOSS_INTERVAL == 0) {
             levelClearedText.setText("BOSS DEFEATED!");
-            victoryPoints.setText("+" + (int) (Gameplay.BASE_SCORE_MODIFIER * Gameplay.getScoreMultiplier()) * 2 + " POINTS");
-            Gameplay.setScore((int) (Gameplay.getScore() + (Gameplay.BASE_SCORE_MODIFIER * Gameplay.getScoreMultiplier()) * 2));
+            victoryPoints.setText("+" + (int) (GameRules.BASE_SCORE_MODIFIER * Gameplay.getScoreMultiplier()) * 2 + " POINTS");
+            Gameplay.setScore((int) (Gameplay.getScore() + (GameRules.BASE_SCORE_MODIFIER * Gameplay.getScoreMultiplier()) * 2));
             Gameplay.setScoreMultiplier(Gameplay.getScoreMultiplier() * 1.5);
             Gameplay.setCardMultiplier(Gameplay.getCardMultiplier() + 1);
         } else {
-            Gameplay.setScore((int) (Gameplay.getScore() + Gameplay.BASE_SCORE_MODIFIER * Gameplay.getScoreMultiplier()));
-            victoryPoints.setText("+" + (int) (Gameplay.BASE_SCORE_MODIFIER * Gameplay.getScoreMultiplier()) + " POINTS");
+            Gameplay.setScore((int) (Gameplay.getScore() + GameRules.BASE_SCORE_MODIFIER * Gameplay.getScoreMultiplier()));
+            victoryPoints.setText("+" + (int) (GameRules.BASE_SCORE_MODIFIER * Gameplay.getScoreMultiplier()) + " POINTS");
         }
 
         // Set current score text
@@ -1260,6 +1325,8 @@ public class GameplayController {
             currentUser.setBestTime(Gameplay.getTimePassed());
         if (Gameplay.getLevelsCleared() > currentUser.getMostLevelsCleared())
             currentUser.setMostLevelsCleared(Gameplay.getLevelsCleared());
+        // Save the new stats now, the saved run is only dropped once the player leaves the results screen
+        MainMenu.saveGame();
 
         FadeTransition fadeBackground = new FadeTransition(Duration.millis(1500), darkenBackground);
         fadeBackground.setFromValue(1.0);
@@ -1475,6 +1542,7 @@ public class GameplayController {
      */
     public void restartGame(InputEvent e) {
         Gameplay.stopRunTimer();
+        Gameplay.startNewRun();
         Gameplay.setLevelsCleared(1);
         Gameplay.setScoreMultiplier(1);
         Gameplay.setCardMultiplier(1);
@@ -1496,6 +1564,8 @@ public class GameplayController {
         if (player.getHealth() != 0) {
             setHasSavedGame(true);
             currentGameSave.setGameSave(player.getHealth(), Gameplay.getLevelsCleared(), Gameplay.getScore(), Gameplay.getTimerValue(), enemy.getMaxHealth(), cardsDataList);
+            currentGameSave.setRunState(Gameplay.getRunSeed(), Gameplay.getHandsDealt());
+            currentGameSave.setCheckpoint(false);
             MainMenu.saveGame();
         }
         else {
@@ -1512,6 +1582,8 @@ public class GameplayController {
         if (player.getHealth() != 0) {
             setHasSavedGame(true);
             currentGameSave.setGameSave(player.getHealth(), Gameplay.getLevelsCleared(), Gameplay.getScore(), Gameplay.getTimerValue(), enemy.getMaxHealth(), cardsDataList);
+            currentGameSave.setRunState(Gameplay.getRunSeed(), Gameplay.getHandsDealt());
+            currentGameSave.setCheckpoint(false);
             currentUser.setAsPlayer(false);
         }
         else {
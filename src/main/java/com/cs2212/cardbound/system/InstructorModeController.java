@@ -2,19 +2,29 @@ package com.cs2212.cardbound.system;
 
 import com.cs2212.cardbound.SceneTools;
 import com.cs2212.cardbound.gameplay.User;
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
-import javafx.collections.transformation.SortedList;
+import javafx.beans.value.ObservableValue;
 import javafx.fxml.FXML;
+import javafx.scene.chart.BarChart;
+import javafx.scene.chart.XYChart;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.StackPane;
+import javafx.util.Callback;
+import javafx.util.Duration;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
 
 import static com.cs2212.cardbound.system.MainMenu.currentUser;
-import static com.cs2212.cardbound.system.MainMenu.userData;
 
 public class InstructorModeController {
 
@@ -36,10 +46,40 @@ public class InstructorModeController {
     @FXML
     private Label backButton;
 
+    @FXML
+    private Label studentCount, averageScore, medianScore, topScore, scoreRange, classPlaytime;
+
+    @FXML
+    private BarChart<String, Number> levelsChart;
+
+    /**
+     * The background thread searches run on, shared by every instructor mode screen
+     */
+    private static final ExecutorService searcher = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "Username Search");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /**
+     * How long typing has to pause before searching, so that a search isn't run for every key pressed
+     */
+    private final PauseTransition searchDelay = new PauseTransition(Duration.millis(150));
+    /**
+     * The number of the latest search, so that a search overtaken by a newer one is never shown
+     */
+    private int searchNumber;
     /**
-     * Observable list of all the user data
+     * The user ID of every row found by the latest search, in the order the users were created
      */
-    private final ObservableList<User> obsData = FXCollections.observableArrayList(userData);
+    private int[] rowIDs = new int[0];
+    /**
+     * The number of the latest sort of the rows, so that a sort overtaken by a newer one is never shown
+     */
+    private int sortNumber;
+    /**
+     * Whether the rows are being put in the table, so that doing so doesn't sort them again
+     */
+    private boolean settingRows;
     /**
      * Whether the back button is selected
      */
@@ -94,14 +134,20 @@ public class InstructorModeController {
         totalLevelsClearedColumn.setCellValueFactory(new PropertyValueFactory<>("mostLevelsCleared"));
         totalPlaytimeColumn.setCellValueFactory(new PropertyValueFactory<>("totalPlaytimeString"));
 
-        // Add data to the table
-        if (currentUser.getUsername().equals("instructor"))
-            obsData.remove(currentUser);
-        userStatisticsTable.getItems().addAll(obsData);
+        // The rows are read a page at a time as they are shown, so they are sorted in the background instead of in place
+        userStatisticsTable.setSortPolicy(table -> {
+            if (!settingRows)
+                showRows();
+            return true;
+        });
 
         // Initialize search bar
         initSearchBar();
 
+        // Show the class statistics, and show them again once they finish being worked out in the background
+        showClassStatistics();
+        MainMenu.setOnClassStatisticsBuilt(this::showClassStatistics);
+
         // Listener for key presses
         rootPane.getScene().addEventFilter(KeyEvent.KEY_PRESSED, event -> {
             switch (event.getCode()) {
@@ -122,24 +168,131 @@ public class InstructorModeController {
         });
     }
 
+    /**
+     * Shows the class-wide statistics panel. The statistics are kept up to date as runs end and worked out in the
+     * background, so nothing is worked out from the users here.
+     */
+    private void showClassStatistics() {
+        ClassStatistics statistics = MainMenu.getClassStatistics();
+        studentCount.setText(Integer.toString(statistics.getCount()));
+        averageScore.setText(String.format("%.1f", statistics.getAverageBestScore()));
+        medianScore.setText(Integer.toString(statistics.getBestScorePercentile(50)));
+        topScore.setText(Integer.toString(statistics.getBestScorePercentile(90)));
+        scoreRange.setText(statistics.getLowestBestScore() + " - " + statistics.getHighestBestScore());
+
+        // The playtime timer counts once a second
+        long playtime = statistics.getTotalPlaytime();
+        classPlaytime.setText(String.format("%d:%02d:%02d", playtime / 3600, playtime / 60 % 60, playtime % 60));
+
+        XYChart.Series<String, Number> levels = new XYChart.Series<>();
+        int[] levelCounts = statistics.getLevelCounts();
+        for (int level = 0; level < levelCounts.length; level++)
+            levels.getData().add(new XYChart.Data<>(Integer.toString(level), levelCounts[level]));
+        levelsChart.getData().clear();
+        levelsChart.getData().add(levels);
+    }
+
     /**
      * Sets up the search functionality of the search bar
      */
     private void initSearchBar() {
-        FilteredList<User> filteredData = new FilteredList<>(obsData, b -> true); //FIXME: change obsData to userData
+        searchDelay.setOnFinished(event -> search(searchBar.getText()));
+        searchBar.textProperty().addListener((observable, oldValue, newValue) -> searchDelay.playFromStart());
+        search(searchBar.getText());
+    }
+
+    /**
+     * Searches the usernames in the background, then shows the users whose username contains the search in the table.
+     * @param text the text in the search bar
+     */
+    private void search(String text) {
+        int number = ++searchNumber;
+        String search = text != null ? text : "";
+        UsernameIndex index = MainMenu.getUsernameIndex();
+        // Leave the instructor out of the table
+        int hiddenID = currentUser.getUsername().equals("instructor") ? currentUser.getUserID() : -1;
+
+        searcher.execute(() -> {
+            int[] userIDs = Arrays.stream(index.search(search)).filter(userID -> userID != hiddenID).toArray();
+            Platform.runLater(() -> {
+                if (number == searchNumber) {
+                    rowIDs = userIDs;
+                    showRows();
+                }
+            });
+        });
+    }
+
+    /**
+     * Shows the rows found by the latest search in the table, in the order of the table's sort columns. To sort them,
+     * every row's user is read in the background, keeping only the values sorted by. The users themselves are read a
+     * page at a time as they are scrolled to.
+     */
+    private void showRows() {
+        int number = ++sortNumber;
+        int[] userIDs = rowIDs;
+        if (userStatisticsTable.getSortOrder().isEmpty()) {
+            setRows(userIDs);
+            return;
+        }
 
-        searchBar.textProperty().addListener(((observable, oldValue, newValue) -> filteredData.setPredicate(user -> {
-            if (newValue == null || newValue.isEmpty())
-                return true;
+        // Each column's values are found and compared the same way the table would sort them itself
+        List<Function<User, Object>> values = new ArrayList<>();
+        Comparator<List<Object>> order = null;
+        for (TableColumn<User, ?> column : userStatisticsTable.getSortOrder()) {
+            int position = values.size();
+            values.add(cellValueOf(column));
+            @SuppressWarnings("unchecked")
+            Comparator<Object> comparator = (Comparator<Object>) column.getComparator();
+            if (column.getSortType() == TableColumn.SortType.DESCENDING)
+                comparator = comparator.reversed();
+            Comparator<List<Object>> byColumn = Comparator.comparing(row -> row.get(position), comparator);
+            order = order == null ? byColumn : order.thenComparing(byColumn);
+        }
+        Function<User, List<Object>> key = user -> {
+            List<Object> row = new ArrayList<>(values.size());
+            for (Function<User, Object> value : values)
+                row.add(user != null ? value.apply(user) : null);
+            return row;
+        };
 
-            String newValueLowerCase = newValue.toLowerCase();
+        Comparator<List<Object>> rowOrder = order;
+        User[] loaded = MainMenu.getLoadedUsers(userIDs);
+        searcher.execute(() -> {
+            try {
+                int[] sorted = MainMenu.sortUsers(userIDs, loaded, key, rowOrder);
+                Platform.runLater(() -> {
+                    if (number == sortNumber)
+                        setRows(sorted);
+                });
+            } catch (IOException e) {
+                e.printStackTrace(); // catch any exceptions gracefully and log them to output console
+            }
+        });
+    }
 
-            return user.getUsername().toLowerCase().contains(newValueLowerCase);
-        })));
+    /**
+     * Gets how a column finds its value in a user's row
+     * @param column the column
+     * @param <T> the type of value in the column
+     * @return gets the column's value for a user
+     */
+    private <T> Function<User, Object> cellValueOf(TableColumn<User, T> column) {
+        Callback<TableColumn.CellDataFeatures<User, T>, ObservableValue<T>> factory = column.getCellValueFactory();
+        return user -> {
+            ObservableValue<T> value = factory.call(new TableColumn.CellDataFeatures<>(userStatisticsTable, column, user));
+            return value != null ? value.getValue() : null;
+        };
+    }
 
-        SortedList<User> sortedData = new SortedList<>(filteredData);
-        sortedData.comparatorProperty().bind(userStatisticsTable.comparatorProperty());
-        userStatisticsTable.setItems(sortedData);
+    /**
+     * Puts rows in the table, which reads their users a page at a time as they are shown
+     * @param userIDs the user ID of every row, in the order they are shown
+     */
+    private void setRows(int[] userIDs) {
+        settingRows = true;
+        userStatisticsTable.setItems(MainMenu.pageUsers(userIDs));
+        settingRows = false;
     }
 
 }
@@ -0,0 +1,158 @@
+package com.cs2212.cardbound.system;
+
+import com.cs2212.cardbound.gameplay.GameSave;
+import com.cs2212.cardbound.gameplay.User;
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The save repository kept in SaveData.json and GameSaveData.json, the game's original save files.
+ * <br><br>
+ * Loading streams through both files to build a {@link SaveIndex} and reads full records only when they are asked for.
+ * Saving converts only the changed records to JSON and adds them to the {@link SaveJournal}, so a save costs the same
+ * however many users there are. The journal is folded into the two files once it holds as many records as half of the
+ * files do, which keeps the cost of rewriting them spread evenly over the saves in between. Either way the disk work is
+ * done by the {@link SaveWorker} in the background, and each file is kept as a {@link SlotFile} so a crash while writing
+ * it leaves the previous version intact.
+ * @version 1.0
+ */
+final class JsonSaveRepository extends AbstractSaveRepository {
+
+    /**
+     * The fewest journal lines after which the journal is folded into the save files
+     */
+    private static final int JOURNAL_COMPACTION_THRESHOLD = 200;
+
+    /**
+     * The Gson instance used to read and write the save files
+     */
+    private final Gson gson;
+    /**
+     * The file holding every user's data and settings
+     */
+    private final SlotFile userFile;
+    /**
+     * The file holding every user's saved run
+     */
+    private final SlotFile gameSaveFile;
+    /**
+     * The journal holding every change since the save files were last written
+     */
+    private final SaveJournal saveJournal;
+    /**
+     * The index of the save files as of the last load, or null if there were no save files. Also read by table pages
+     * being read in the background.
+     */
+    private volatile SaveIndex saveIndex;
+    /**
+     * The number of lines added to the journal since it was last compacted
+     */
+    private int journalEntries;
+
+    /**
+     * Creates a repository kept in a directory.
+     * @param gson the Gson instance used to read and write the save files
+     * @param directory the directory holding the save files
+     */
+    JsonSaveRepository(Gson gson, Path directory) {
+        this.gson = gson;
+        this.userFile = new SlotFile(directory.resolve("SaveData.json"));
+        this.gameSaveFile = new SlotFile(directory.resolve("GameSaveData.json"));
+        this.saveJournal = new SaveJournal(gson, directory.resolve("SaveJournal.log"), userFile, gameSaveFile);
+    }
+
+    @Override
+    public void load() throws IOException {
+        // Make sure any saves still being written have reached the disk before reading them back
+        SaveWorker.flush();
+        reset();
+        saveIndex = null;
+
+        // Skip indexing the json files if they don't exist
+        if (userFile.exists() && gameSaveFile.exists()) {
+            saveIndex = SaveIndex.build(gson, userFile, gameSaveFile);
+            saveIndex.getUserIdsByName().forEach(this::indexUser);
+            saveIndex.getSharedUserIds().forEach((username, ids) -> ids.forEach(id -> indexUser(username, id)));
+        }
+
+        // Apply every change made since the json files were last written, and fold them in once there are enough
+        saveJournal.repair();
+        journalEntries = saveJournal.replay(this::addUser, this::addGameSave);
+        compactIfDue();
+    }
+
+    /**
+     * Adds every changed user and game save to the journal, and compacts the journal once it has grown long enough.
+     */
+    @Override
+    public void save() {
+        // Lines a failed write handed back are added again first, so later versions of the same records still win
+        StringBuilder lines = new StringBuilder(saveJournal.takeUnwritten());
+        int entries = 0;
+        // Only records that have been read can have changed
+        for (User user : getLoadedUsers()) {
+            if (user.isDirty()) {
+                lines.append(saveJournal.entry(user));
+                user.markClean();
+                entries++;
+            }
+        }
+        for (GameSave save : getLoadedGameSaves()) {
+            if (save.isDirty()) {
+                lines.append(saveJournal.entry(save));
+                save.markClean();
+                entries++;
+            }
+        }
+        if (lines.isEmpty())
+            return;
+
+        saveJournal.append(lines.toString());
+        journalEntries += entries;
+        compactIfDue();
+    }
+
+    /**
+     * Queues a compaction of the journal once it holds as many lines as half the records in the save files, so that
+     * rewriting the files costs each save no more than a few more journal lines would.
+     */
+    private void compactIfDue() {
+        SaveIndex index = saveIndex;
+        int stored = index != null ? index.getUserCount() + index.getGameSaveCount() : 0;
+        if (journalEntries >= Math.max(JOURNAL_COMPACTION_THRESHOLD, stored / 2)) {
+            saveJournal.requestCompaction();
+            journalEntries = 0;
+        }
+    }
+
+    @Override
+    protected User readUser(int userID) throws IOException {
+        return saveIndex != null ? saveIndex.readUser(userID) : null;
+    }
+
+    @Override
+    protected GameSave readGameSave(int userID) throws IOException {
+        return saveIndex != null ? saveIndex.readGameSave(userID) : null;
+    }
+
+    @Override
+    public List<User> readUserPage(List<Integer> userIDs) throws IOException {
+        SaveIndex index = saveIndex;
+        return index != null ? index.readUsers(userIDs) : new ArrayList<>(Collections.nCopies(userIDs.size(), null));
+    }
+
+    @Override
+    protected List<User> readUsers() throws IOException {
+        return saveIndex != null ? saveIndex.readUsers() : new ArrayList<>();
+    }
+
+    @Override
+    protected List<GameSave> readGameSaves() throws IOException {
+        return saveIndex != null ? saveIndex.readGameSaves() : new ArrayList<>();
+    }
+}
@@ -0,0 +1,299 @@
+package com.cs2212.cardbound.system;
+
+import com.cs2212.cardbound.gameplay.User;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * The best K users, kept up to date as runs end and saved next to the save files, so that the leaderboard screen can be
+ * shown without reading every user.
+ * <br><br>
+ * The entries are kept in a heap with the lowest-ranked entry on top, so a user who beats it replaces it in O(log K).
+ * Users are ranked the same way as in {@link RankIndex}: by best score from highest to lowest, then by best time from
+ * lowest to highest, then by user ID. Each entry holds everything the leaderboard table shows, so opening the
+ * leaderboard costs O(K) however many users there are.
+ * <br><br>
+ * Best scores only go up, but a user's best time can change without their best score changing, which can move the
+ * lowest user in the top K below a user outside of it. The changed user is moved to their new place, but the leaderboard
+ * has no way of knowing who that outside user is, so it marks itself as no longer exact, and it is built again from
+ * every user in the background the next time it is needed.
+ * @version 1.0
+ */
+final class Leaderboard {
+
+    /**
+     * A user's row on the leaderboard, a copy of what the table shows so that the user never has to be read
+     */
+    static final class Entry {
+        private final int userID;
+        private final String username;
+        private final int bestScore;
+        private final int bestTime;
+        private final String bestTimeString;
+
+        /**
+         * Creates an entry from a user's current statistics
+         * @param user the user
+         */
+        Entry(User user) {
+            this(user.getUserID(), user.getUsername(), user.getBestScore(), user.getBestTime(), user.getBestTimeString());
+        }
+
+        private Entry(int userID, String username, int bestScore, int bestTime, String bestTimeString) {
+            this.userID = userID;
+            this.username = username;
+            this.bestScore = bestScore;
+            this.bestTime = bestTime;
+            this.bestTimeString = bestTimeString;
+        }
+
+        int getUserID() {
+            return userID;
+        }
+
+        String getUsername() {
+            return username;
+        }
+
+        int getBestScore() {
+            return bestScore;
+        }
+
+        String getBestTimeString() {
+            return bestTimeString;
+        }
+
+        /**
+         * Checks whether another entry shows exactly the same row
+         * @param other the other entry
+         * @return true if nothing shown in the row differs, false otherwise
+         */
+        private boolean sameAs(Entry other) {
+            return userID == other.userID && bestScore == other.bestScore && bestTime == other.bestTime
+                    && username.equals(other.username) && bestTimeString.equals(other.bestTimeString);
+        }
+    }
+
+    /**
+     * Orders entries from the highest rank to the lowest
+     */
+    private static final Comparator<Entry> RANK_ORDER = Comparator.comparingInt((Entry entry) -> -entry.bestScore)
+            .thenComparingInt(entry -> entry.bestTime)
+            .thenComparingInt(entry -> entry.userID);
+
+    /**
+     * The number of users kept
+     */
+    private final int capacity;
+    /**
+     * The entries, with the lowest-ranked one at the head
+     */
+    private final PriorityQueue<Entry> heap;
+    /**
+     * The entry of each user in the top K, by user ID
+     */
+    private final Map<Integer, Entry> members = new HashMap<>();
+    /**
+     * The highest user ID seen, used to tell whether every user fits in the top K
+     */
+    private int highestUserId = -1;
+    /**
+     * Whether the entries are known to be exactly the best K users
+     */
+    private boolean exact = true;
+    /**
+     * The entries from the highest rank to the lowest, or null if they have changed since they were last sorted
+     */
+    private List<Entry> sorted;
+    /**
+     * The rank of each user in sorted, by user ID
+     */
+    private final Map<Integer, Integer> ranks = new HashMap<>();
+
+    /**
+     * Creates an empty leaderboard.
+     * @param capacity the number of users to keep, at least 1
+     */
+    Leaderboard(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.heap = new PriorityQueue<>(this.capacity + 1, RANK_ORDER.reversed());
+    }
+
+    /**
+     * Builds the leaderboard of a list of users.
+     * @param capacity the number of users to keep
+     * @param users every user
+     * @return the leaderboard
+     */
+    static Leaderboard of(int capacity, Iterable<User> users) {
+        Leaderboard leaderboard = new Leaderboard(capacity);
+        for (User user : users)
+            leaderboard.update(user);
+        return leaderboard;
+    }
+
+    /**
+     * Creates an empty leaderboard to use until the real one has been built, which is never trusted as exact.
+     * @param capacity the number of users to keep
+     * @return the leaderboard
+     */
+    static Leaderboard unbuilt(int capacity) {
+        Leaderboard leaderboard = new Leaderboard(capacity);
+        leaderboard.exact = false;
+        return leaderboard;
+    }
+
+    /**
+     * Moves a user whose statistics changed, adding them if they now rank in the top K.
+     * @param user the user
+     * @return true if the leaderboard changed, false otherwise
+     */
+    boolean update(User user) {
+        Entry entry = new Entry(user);
+        highestUserId = Math.max(highestUserId, entry.userID);
+
+        Entry old = members.get(entry.userID);
+        if (old != null) {
+            if (old.sameAs(entry))
+                return false;
+            heap.remove(old);
+            // Every user outside the top K ranks below the lowest entry, so only a user who drops below the lowest other
+            // entry can be overtaken by someone outside, and only a rebuild can find who that is
+            if (members.size() >= capacity && highestUserId + 1 > members.size()
+                    && (heap.isEmpty() || RANK_ORDER.compare(entry, heap.peek()) > 0))
+                exact = false;
+        } else if (heap.size() >= capacity) {
+            if (RANK_ORDER.compare(entry, heap.peek()) >= 0)
+                return false;
+            members.remove(heap.poll().userID);
+        }
+        heap.add(entry);
+        members.put(entry.userID, entry);
+        sorted = null;
+        return true;
+    }
+
+    /**
+     * Gets the number of users kept.
+     * @return K
+     */
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Checks whether the entries are known to be exactly the best K users.
+     * @return false if the leaderboard should be built again from every user, true otherwise
+     */
+    boolean isExact() {
+        return exact;
+    }
+
+    /**
+     * Gets the entries from the highest rank to the lowest.
+     * @return the entries, which must not be changed
+     */
+    List<Entry> getEntries() {
+        if (sorted == null) {
+            Entry[] entries = heap.toArray(new Entry[0]);
+            Arrays.sort(entries, RANK_ORDER);
+            sorted = List.of(entries);
+            ranks.clear();
+            for (int i = 0; i < entries.length; i++)
+                ranks.put(entries[i].userID, i + 1);
+        }
+        return sorted;
+    }
+
+    /**
+     * Gets a user's rank, if they are in the top K.
+     * @param userID the user's ID
+     * @return the user's rank starting at 1, or 0 if they are not in the top K
+     */
+    int rankOf(int userID) {
+        getEntries();
+        return ranks.getOrDefault(userID, 0);
+    }
+
+    /**
+     * Converts the leaderboard to JSON for its save file.
+     * @param gson the Gson instance used to write the JSON
+     * @return the JSON
+     */
+    String toJson(Gson gson) {
+        JsonArray entries = new JsonArray();
+        for (Entry entry : getEntries()) {
+            JsonObject row = new JsonObject();
+            row.addProperty("userID", entry.userID);
+            row.addProperty("username", entry.username);
+            row.addProperty("bestScore", entry.bestScore);
+            row.addProperty("bestTime", entry.bestTime);
+            row.addProperty("bestTimeString", entry.bestTimeString);
+            entries.add(row);
+        }
+        JsonObject file = new JsonObject();
+        file.addProperty("capacity", capacity);
+        file.addProperty("highestUserId", highestUserId);
+        file.addProperty("exact", exact);
+        file.add("entries", entries);
+        return gson.toJson(file);
+    }
+
+    /**
+     * Reads a leaderboard from its save file.
+     * @param reader the save file
+     * @param capacity the number of users the leaderboard should keep
+     * @return the leaderboard, or null if the file was saved with a different K or is damaged
+     * @throws IOException if the file cannot be read
+     */
+    static Leaderboard read(Reader reader, int capacity) throws IOException {
+        try {
+            JsonObject file = JsonParser.parseReader(reader).getAsJsonObject();
+            if (!hasAll(file, "capacity", "highestUserId", "exact", "entries") || !file.get("entries").isJsonArray()
+                    || file.get("capacity").getAsInt() != capacity)
+                return null;
+            Leaderboard leaderboard = new Leaderboard(capacity);
+            for (JsonElement element : file.getAsJsonArray("entries")) {
+                JsonObject row = element.getAsJsonObject();
+                if (!hasAll(row, "userID", "username", "bestScore", "bestTime", "bestTimeString"))
+                    return null;
+                Entry entry = new Entry(row.get("userID").getAsInt(), row.get("username").getAsString(),
+                        row.get("bestScore").getAsInt(), row.get("bestTime").getAsInt(), row.get("bestTimeString").getAsString());
+                leaderboard.heap.add(entry);
+                leaderboard.members.put(entry.userID, entry);
+            }
+            leaderboard.highestUserId = file.get("highestUserId").getAsInt();
+            leaderboard.exact = file.get("exact").getAsBoolean();
+            return leaderboard;
+        } catch (JsonParseException | IllegalStateException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether a JSON object has every one of a set of values, none of them null
+     * @param object the object
+     * @param names the names of the values
+     * @return true if every value is there, false otherwise
+     */
+    private static boolean hasAll(JsonObject object, String... names) {
+        for (String name : names) {
+            if (!object.has(name) || object.get(name).isJsonNull())
+                return false;
+        }
+        return true;
+    }
+}
@@ -1,14 +1,11 @@
 package com.cs2212.cardbound.system;
 
 import com.cs2212.cardbound.SceneTools;
-import com.cs2212.cardbound.gameplay.User;
 import javafx.application.Platform;
 import javafx.beans.property.ReadOnlyObjectWrapper;
-import javafx.collections.FXCollections;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.StackPane;
 
@@ -28,13 +25,13 @@ public class LeaderboardController {
     private Button set720p, set1080p;
 
     @FXML
-    private TableView<User> highScoreTable;
+    private TableView<Leaderboard.Entry> highScoreTable;
 
     @FXML
-    private TableColumn<User, String> usernameColumn, bestTimeColumn;
+    private TableColumn<Leaderboard.Entry, String> rankColumn, usernameColumn, bestTimeColumn;
 
     @FXML
-    private TableColumn<User, Integer> bestScoreColumn, rankColumn;
+    private TableColumn<Leaderboard.Entry, Integer> bestScoreColumn;
 
     @FXML
     private Label lifetimeGames, bestScore, fastestTime, mostLevelsCleared, totalPlaytime, backButton;
@@ -83,21 +80,18 @@ public class LeaderboardController {
         highScoreTable.setStyle("-fx-font-size: 14;");
 
         // Link the proper data in the table columns
-        usernameColumn.setCellValueFactory(new PropertyValueFactory<>("username"));
-        bestScoreColumn.setCellValueFactory(new PropertyValueFactory<>("bestScore"));
-        bestTimeColumn.setCellValueFactory(new PropertyValueFactory<>("bestTimeString"));
-
-        // Add data to the table
-        highScoreTable.getItems().addAll(FXCollections.observableArrayList(userData));
-        bestScoreColumn.setSortType(TableColumn.SortType.DESCENDING);
-        highScoreTable.getSortOrder().add(bestScoreColumn);
+        usernameColumn.setCellValueFactory(column -> new ReadOnlyObjectWrapper<>(column.getValue().getUsername()));
+        bestScoreColumn.setCellValueFactory(column -> new ReadOnlyObjectWrapper<>(column.getValue().getBestScore()));
+        bestTimeColumn.setCellValueFactory(column -> new ReadOnlyObjectWrapper<>(column.getValue().getBestTimeString()));
+
         rankColumn.setSortable(false);
         usernameColumn.setSortable(false);
         bestScoreColumn.setSortable(false);
         bestTimeColumn.setSortable(false);
 
-        // Init rank column
-        rankColumn.setCellValueFactory(column -> new ReadOnlyObjectWrapper<>(highScoreTable.getItems().indexOf(column.getValue()) + 1));
+        // Show the leaderboard on hand, and show it again if a newer one finishes being built in the background
+        showLeaderboard();
+        MainMenu.setOnLeaderboardBuilt(this::showLeaderboard);
 
         lifetimeGames.setText(Integer.toString(currentUser.getLifetimeGames()));
         bestScore.setText(Integer.toString(currentUser.getBestScore()));
@@ -123,6 +117,25 @@ public class LeaderboardController {
         });
     }
 
+    /**
+     * Fills the table with the top users, already in leaderboard order, followed by the current user if they aren't one.
+     */
+    private void showLeaderboard() {
+        Leaderboard leaderboard = MainMenu.getLeaderboard();
+        highScoreTable.getItems().setAll(leaderboard.getEntries());
+        if (leaderboard.rankOf(currentUser.getUserID()) == 0)
+            highScoreTable.getItems().add(new Leaderboard.Entry(currentUser));
+
+        // Init rank column, where a current user outside the top users who can't be ranked is shown as below them
+        int myRank = MainMenu.getMyRank();
+        rankColumn.setCellValueFactory(column -> {
+            int rank = leaderboard.rankOf(column.getValue().getUserID());
+            if (rank == 0)
+                rank = myRank;
+            return new ReadOnlyObjectWrapper<>(rank > 0 ? Integer.toString(rank) : ">" + leaderboard.getCapacity());
+        });
+    }
+
     /**
      * Updates the screen resolution.
      * @param resX the new given horizontal resolution
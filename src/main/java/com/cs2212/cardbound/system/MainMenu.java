@@ -3,9 +3,8 @@ package com.cs2212.cardbound.system;
 import com.cs2212.cardbound.gameplay.GameSave;
 import com.cs2212.cardbound.gameplay.User;
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
-import com.google.gson.stream.JsonReader;
 import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.beans.property.*;
 import javafx.collections.ObservableList;
 import javafx.scene.Node;
@@ -19,14 +18,17 @@ import javafx.scene.text.Text;
 import javafx.stage.Screen;
 import javafx.util.Duration;
 
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.lang.reflect.Type;
+import java.io.Reader;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * A utility class that manages flags + User related methods for the Main Menu at runtime.
@@ -53,6 +55,93 @@ public class MainMenu {
      * Modifiable screen height property
      */
     public static DoubleProperty screenHeightProperty = new SimpleDoubleProperty(SCREEN_HEIGHT);
+    /**
+     * The Gson instance used to read and write every save file
+     */
+    private static final Gson gson = new Gson();
+    /**
+     * The save backend picked with {@code -Dcardbound.saveBackend}: {@code filestore}, {@code sharded} or {@code json}
+     */
+    private static final String SAVE_BACKEND = getSaveBackend();
+    /**
+     * Where every user and game save is kept, picked with {@code -Dcardbound.saveBackend}
+     */
+    private static final SaveRepository repository = createRepository();
+    /**
+     * Whether user statistics are also kept in the memory-mapped {@link UserStatsStore}. Off unless the game is started
+     * with {@code -Dcardbound.statsStore=true}.
+     */
+    private static final boolean STATS_STORE_ENABLED = Boolean.getBoolean("cardbound.statsStore");
+    /**
+     * The memory-mapped copy of every user's statistics, or null if it is turned off or could not be opened
+     */
+    private static UserStatsStore statsStore;
+    /**
+     * The task that writes the memory-mapped statistics to the disk, queued on the {@link SaveWorker} after each save
+     */
+    private static final SaveWorker.Task forceStatsStore = () -> {
+        UserStatsStore store = statsStore;
+        if (store != null)
+            store.force();
+    };
+    /**
+     * The leaderboard order of every user, built the first time it is needed and updated on each save
+     */
+    private static RankIndex rankIndex;
+    /**
+     * The class-wide statistics for instructor mode, worked out in the background the first time they are needed and
+     * updated on each save, or null until they have been worked out
+     */
+    private static ClassStatistics classStatistics;
+    /**
+     * Whether the class statistics are being worked out in the background
+     */
+    private static boolean classStatisticsBuilding;
+    /**
+     * Called once the class statistics worked out in the background are ready, or null
+     */
+    private static Runnable onClassStatisticsBuilt;
+    /**
+     * The number of users shown on the leaderboard, set with {@code -Dcardbound.leaderboardSize}
+     */
+    private static final int LEADERBOARD_SIZE = Integer.getInteger("cardbound.leaderboardSize", 100);
+    /**
+     * The file the top users on the leaderboard are kept in between runs of the game. Each save backend has its own, so
+     * that switching backends never shows the users of another.
+     */
+    private static final SlotFile leaderboardFile = new SlotFile(Path.of(SAVE_BACKEND.equals("json") ? "./Leaderboard.json" : "./Leaderboard-" + SAVE_BACKEND + ".json"));
+    /**
+     * The top users on the leaderboard, read the first time the leaderboard is needed and updated on each save
+     */
+    private static Leaderboard leaderboard;
+    /**
+     * Whether a new leaderboard is being built in the background
+     */
+    private static boolean leaderboardBuilding;
+    /**
+     * Called once a leaderboard built in the background replaces the one shown, or null
+     */
+    private static Runnable onLeaderboardBuilt;
+    /**
+     * The number of users read at once while building statistics in the background
+     */
+    private static final int BUILD_PAGE_SIZE = 1000;
+    /**
+     * The background thread that reads every user when statistics have to be built again, so no screen waits on it
+     */
+    private static final ExecutorService statisticsBuilder = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "Statistics Builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /**
+     * The number of times the save data has been loaded, so that statistics built from older save data are thrown away
+     */
+    private static int loadCount;
+    /**
+     * Every username, indexed for the instructor's search bar when the save data loads and added to as users are created
+     */
+    private static UsernameIndex usernameIndex;
     /**
      * Whether there is a user logged in
      */
@@ -73,19 +162,10 @@ public class MainMenu {
      * Whether the user is currently confirming their resolution changes
      */
     public static boolean isConfirmingResolution;
-    /**
-     * List container holding the json converted user data
-     */
-    public static List<User> userData;
     /**
      * Container to store the current player's user object.
      */
     public static User currentUser;
-    /**
-     * List container (list of GameSave objects instantiated by gson()), holding
-     * the json converted game data
-     */
-    public static List<GameSave> gameData;
     /**
      * Container to store the current player's game save.
      */
@@ -107,6 +187,33 @@ public class MainMenu {
         throw new AssertionError();
     }
 
+    /**
+     * Gets the save backend picked with {@code -Dcardbound.saveBackend}: {@code filestore} for the log-structured file
+     * store, {@code sharded} for a file per user, or anything else for the JSON save files.
+     * @return {@code filestore}, {@code sharded} or {@code json}
+     */
+    private static String getSaveBackend() {
+        String backend = System.getProperty("cardbound.saveBackend", "json");
+        if (backend.equalsIgnoreCase("filestore"))
+            return "filestore";
+        if (backend.equalsIgnoreCase("sharded"))
+            return "sharded";
+        return "json";
+    }
+
+    /**
+     * Creates the save repository of the picked save backend.
+     * @return the save repository
+     */
+    private static SaveRepository createRepository() {
+        Path directory = Path.of(".");
+        return switch (SAVE_BACKEND) {
+            case "filestore" -> new FileStoreSaveRepository(gson, directory);
+            case "sharded" -> new ShardedSaveRepository(gson, directory);
+            default -> new JsonSaveRepository(gson, directory);
+        };
+    }
+
     /**
      * Gets the state of isLoggedIn.
      * @return True if a user is logged in, false otherwise.
@@ -126,45 +233,38 @@ public class MainMenu {
     /**
      * Searches the user database (userData) to see if the login credentials are valid.
      * If valid, sets static variable currentUser to the "logged in" user.
+     * <br><br>
+     * Only the user logging in and their game save are read from the {@link SaveRepository}.
      * @param username The username of the user attempting to log in.
      * @param password The password of the user attempting to log in.
      * @return True if the user successfully logs in, false otherwise.
      */
     public static boolean login(String username, String password) {
-        // Check if userData is not null
-        if (userData != null) {
-            Iterator<User> itr = userData.iterator();   // Iterate over users
-            while (itr.hasNext()) {
-                currentUser = itr.next(); // Point currentUser to the next user in the userData list each time
-                if (currentUser.getUsername().equals(username)) {
-                    if (currentUser.getPassword().equals(password)) { // If user/pass match in userData
-                        currentUser.setAsPlayer(true);  // Set the user as the "Player"
-
-                        int playerID = currentUser.getUserID();
-                        retrieveSettings(currentUser);  // Retrieve saved settings and set them accordingly upon login
-                        Iterator<GameSave> itr2 = gameData.iterator(); // Iterate over saved games
-                        while (itr2.hasNext()) {
-                            currentGameSave = itr2.next();
-                            int checkId = currentGameSave.getUserId();
-                            // Check if user ID matches in game data
-                            if (playerID == checkId) {
-                                // If user already has previously saved game (non-null cards list)
-                                if (currentGameSave.getCardsList() != null)
-                                    hasSavedGame.set(true);
-
-                                return true;    // login successful
-                            }
-                        }
-                        // If gameSave not found, create one and add to gameData
-                        currentGameSave = new GameSave(currentUser.getUserID());
-                        gameData.add(currentGameSave);
-                        saveGame();
-                        return true;    // login successful
-                    }
-                }
-            }
+        User user = repository.findUser(username, password);
+        if (user == null)
+            return false;   // login unsuccessful
+
+        currentUser = user;
+        currentUser.setAsPlayer(true);  // Set the user as the "Player"
+        // Start working out the class statistics now, so they are ready by the time instructor mode opens
+        if (isInstructor(username))
+            getClassStatistics();
+
+        int playerID = currentUser.getUserID();
+        retrieveSettings(currentUser);  // Retrieve saved settings and set them accordingly upon login
+        currentGameSave = repository.getGameSave(playerID);
+        if (currentGameSave != null) {
+            // If user already has a previously saved game they left with lives remaining
+            if (currentGameSave.isResumable())
+                hasSavedGame.set(true);
+
+            return true;    // login successful
         }
-        return false;   // login unsuccessful
+        // If gameSave not found, create one and add to gameData
+        currentGameSave = new GameSave(playerID);
+        repository.addGameSave(currentGameSave);
+        saveGame();
+        return true;    // login successful
     }
 
     /**
@@ -194,22 +294,75 @@ public class MainMenu {
      * @param password The password of the new user.
      */
     public static void createUser(String username, String password) {
-        // Set created user's ID to increment from the previous one (consecutive)
-        int ID = (userData != null) ? userData.size() : 0;
+        // Set created user's ID to increment from the highest one (consecutive)
+        int ID = repository.nextUserId();
 
         // Creates corresponding User and GameSave objects and set them to current static variables
         currentUser = new User(username, password, ID);
         currentGameSave = new GameSave(currentUser.getUserID());
 
         // Add currentUser and currentGameSave to their respective databases
-        userData.add(currentUser);
-        gameData.add(currentGameSave);
+        repository.addUser(currentUser);
+        repository.addGameSave(currentGameSave);
+        usernameIndex.add(ID, username);
         saveGame();
 
         // Set currentUser to be the "Player"
         currentUser.setAsPlayer(true);
     }
 
+    /**
+     * Gets every user, reading the ones that haven't been read yet from the {@link SaveRepository}. Used by the screens
+     * that list every user.
+     * @return Every user, in the order they were created.
+     */
+    public static List<User> getUserData() {
+        return repository.getUsers();
+    }
+
+    /**
+     * Gets the index of every username, which the instructor's search bar searches without reading any user.
+     * @return The username index.
+     */
+    static UsernameIndex getUsernameIndex() {
+        return usernameIndex;
+    }
+
+    /**
+     * Creates the rows of a table of users, which reads the users a page at a time as they are shown.
+     * @param userIDs The user ID of every row, in the order they are shown.
+     * @return The rows.
+     */
+    static PagedUserList pageUsers(int[] userIDs) {
+        return new PagedUserList(repository, userIDs);
+    }
+
+    /**
+     * Gets the copy in memory of each of a set of users, which is newer than the stored copy of any user who has one.
+     * @param userIDs The users' IDs.
+     * @return The users in the same order, with null for each user who isn't in memory.
+     */
+    static User[] getLoadedUsers(int[] userIDs) {
+        User[] loaded = new User[userIDs.length];
+        for (int i = 0; i < userIDs.length; i++)
+            loaded[i] = repository.getLoadedUser(userIDs[i]);
+        return loaded;
+    }
+
+    /**
+     * Puts the rows of a table of users in order without keeping every user in memory. Runs on a background thread.
+     * @param userIDs The user ID of every row.
+     * @param loaded The copy in memory of each row's user, from {@link #getLoadedUsers(int[])}.
+     * @param key Gets the value a user is sorted by, given null for a user who could not be read.
+     * @param order The order of the values.
+     * @param <K> The type of value.
+     * @return The user IDs in order.
+     * @throws IOException If the users cannot be read.
+     */
+    static <K> int[] sortUsers(int[] userIDs, User[] loaded, Function<User, K> key, Comparator<? super K> order) throws IOException {
+        return PagedUserList.sort(repository, userIDs, loaded, key, order);
+    }
+
     /**
      * Gets the state of hasSavedGame.
      * @return True if this user has a saved run, false otherwise.
@@ -235,109 +388,314 @@ public class MainMenu {
     }
 
     /**
-     * Saves the user's game data and settings to JSON files.
+     * Saves the user's game data and settings to the {@link SaveRepository}.
      * <br><br>
      * Updates the current user's statistics, volume settings,
      * and gameplay settings, and then writes the user data and game data
-     * to JSON files to serve as a functioning database which can retrieve
+     * to the save repository to serve as a functioning database which can retrieve
      * data even after program termination.
+     * <br><br>
+     * Only users and game saves that changed since the last save are written, and the disk work is done by the
+     * {@link SaveWorker} in the background, so this never waits on the disk.
      */
     public static void saveGame() {
-        try {
-            // Save current user's settings
-            currentUser.setTotalPlaytimeString(totalPlaytime);
-            currentUser.setTotalPlaytime(totalPlaytime);
-            currentUser.setMusicVolume(AudioPlayer.getMusicVolume());
-            currentUser.setMasterVolume(AudioPlayer.getMasterVolume());
-            currentUser.setSfxVolume(AudioPlayer.getSfxVolume());
-            currentUser.setDisableLevelTimer(Gameplay.levelTimerDisabled);
-            currentUser.setDisableRunTimer(Gameplay.runTimerDisabled);
-            currentUser.setUnlHealth(Gameplay.unlimitedHealthToggled);
-
-            // Update game save data
-            int playerID = currentUser.getUserID();
-            for (GameSave save : gameData) {
-                if (save.getUserId() == playerID) {
-                    if (getHasSavedGame() && save.getCardsList() != null) {
-                        save.setGameSave(currentGameSave.getNumLives(), currentGameSave.getLevel(), currentGameSave.getScore(), currentGameSave.getRunTimer(), currentGameSave.getEnemyHp(), currentGameSave.getCardsList());
-                    }
-                }
-            }
-
-            // Convert user data and game data to JSON strings
-            String jsonData1 = new Gson().toJson(userData);
-            String jsonData2 = new Gson().toJson(gameData);
+        // Save current user's settings
+        currentUser.setTotalPlaytimeString(totalPlaytime);
+        currentUser.setTotalPlaytime(totalPlaytime);
+        currentUser.setMusicVolume(AudioPlayer.getMusicVolume());
+        currentUser.setMasterVolume(AudioPlayer.getMasterVolume());
+        currentUser.setSfxVolume(AudioPlayer.getSfxVolume());
+        currentUser.setDisableLevelTimer(Gameplay.levelTimerDisabled);
+        currentUser.setDisableRunTimer(Gameplay.runTimerDisabled);
+        currentUser.setUnlHealth(Gameplay.unlimitedHealthToggled);
+
+        // Write the user's statistics in place in the memory-mapped store and move them on the leaderboard, before
+        // they are marked as saved
+        updateStatsStore();
+        boolean leaderboardChanged = false;
+        if (currentUser.isDirty()) {
+            if (rankIndex != null)
+                rankIndex.update(currentUser);
+            if (classStatistics != null && !isInstructor(currentUser.getUsername()))
+                classStatistics.update(currentUser);
+            leaderboardChanged = getLeaderboard().update(currentUser);
+        }
 
-            // Write user data to SaveData.json
-            FileWriter jsonWriter1 = new FileWriter("./SaveData.json");
-            jsonWriter1.write(jsonData1);
-            jsonWriter1.close();
+        // Update game save data
+        GameSave save = repository.getGameSave(currentUser.getUserID());
+        if (save != null && getHasSavedGame() && save.getCardsList() != null) {
+            save.setGameSave(currentGameSave.getNumLives(), currentGameSave.getLevel(), currentGameSave.getScore(), currentGameSave.getRunTimer(), currentGameSave.getEnemyHp(), currentGameSave.getCardsList());
+            save.setRunState(currentGameSave.getRunSeed(), currentGameSave.getHandsDealt());
+        }
 
-            // Write game data to GameSaveData.json
-            FileWriter jsonWriter2 = new FileWriter("./GameSaveData.json");
-            jsonWriter2.write(jsonData2);
-            jsonWriter2.close();
+        // Write the changed users and game saves in the background, then the leaderboard, so it never holds a score
+        // that no save does
+        repository.save();
+        if (leaderboardChanged)
+            SaveWorker.submit(Map.of(leaderboardFile, leaderboard.toJson(gson)));
+    }
 
+    /**
+     * Copies the current user into the memory-mapped statistics store if they changed and the store is turned on.
+     * Only the current user's statistics change while playing, and new users are saved as the current user.
+     */
+    private static void updateStatsStore() {
+        if (statsStore == null || !currentUser.isDirty())
+            return;
+        try {
+            statsStore.put(currentUser);
+            SaveWorker.execute(forceStatsStore);
         } catch (IOException e) {
             e.printStackTrace(); // catch any exceptions gracefully and log them to output console
         }
     }
 
     /**
-     * Loads the user's saved game data from JSON files (database).
-     * <br><br>
-     * It reads the user data from SaveData.json and the game data from GameSaveData.json,
-     * instantiates the JSON data to corresponding User/GameSave objects,
-     * and then holds them as static lists for other methods/procedures to access.
+     * Gets the leaderboard order of every user, building it if it has not been built since the game loaded.
+     * @return the rank index
      */
-    public static void loadGame() {
-        // Check if SaveData.json and GameSaveData.json files exist
-        File saveDataJson = new File("./SaveData.json");
-        File gameSaveDataJson = new File("./GameSaveData.json");
+    static RankIndex getRankIndex() {
+        if (rankIndex != null)
+            return rankIndex;
+        if (statsStore != null) {
+            // Read the scores straight from the memory-mapped statistics instead of from every User object
+            rankIndex = new RankIndex();
+            for (int userID = 0; userID < statsStore.size(); userID++) {
+                if (statsStore.contains(userID))
+                    rankIndex.update(userID, statsStore.getBestScore(userID), statsStore.getBestTime(userID));
+            }
+        } else {
+            rankIndex = RankIndex.of(getUserData());
+        }
+        return rankIndex;
+    }
 
-        // Initializes lists if it is the first user (if null)
-        if (userData == null)
-            userData = new ArrayList<>();
-        if (gameData == null)
-            gameData = new ArrayList<>();
+    /**
+     * Gets the class-wide statistics shown in instructor mode. If they have not been worked out since the game loaded,
+     * they are worked out in the background, and empty statistics are given until then.
+     * @return the class statistics
+     */
+    static ClassStatistics getClassStatistics() {
+        if (classStatistics != null)
+            return classStatistics;
+        buildClassStatistics();
+        return new ClassStatistics();
+    }
 
-        // Add instructor as user if there is no user data at all
-        if (userData.isEmpty())
-            userData.add(new User("instructor", "WorldsBestInstructor", 0));
-        // Add instructor game data if there is no game data at all
-        if (gameData.isEmpty())
-            gameData.add(new GameSave(0));
+    /**
+     * Sets what to do once the class statistics worked out in the background are ready, such as showing them.
+     * @param action the action, run on the JavaFX thread, or null to do nothing
+     */
+    static void setOnClassStatisticsBuilt(Runnable action) {
+        onClassStatisticsBuilt = action;
+    }
 
-        // Skip loading the json files if they don't exist
-        if (!saveDataJson.isFile() || !gameSaveDataJson.isFile()) return;
+    /**
+     * Works out the class statistics in the background, unless they are already being worked out. Every user is read
+     * once to do so, but none of them are kept, unlike with {@link #getUserData()}. The instructor isn't a student, so
+     * they are left out.
+     */
+    private static void buildClassStatistics() {
+        if (classStatisticsBuilding)
+            return;
+        classStatisticsBuilding = true;
+        int load = loadCount;
+        int[] userIDs = repository.getUsernames().entrySet().stream()
+                .filter(user -> !isInstructor(user.getValue()))
+                .mapToInt(Map.Entry::getKey)
+                .toArray();
+        User[] loaded = getLoadedUsers(userIDs);
+        UserStatsStore store = statsStore;
+        statisticsBuilder.execute(() -> {
+            ClassStatistics built = new ClassStatistics();
+            boolean read = true;
+            try {
+                if (store != null) {
+                    // Read the statistics straight from the memory-mapped store instead of from every User object
+                    for (int userID : userIDs) {
+                        if (store.contains(userID))
+                            built.update(userID, store.getBestScore(userID), store.getMostLevelsCleared(userID), store.getTotalPlaytime(userID));
+                    }
+                } else {
+                    readEveryUser(userIDs, loaded, built::update);
+                }
+            } catch (IOException e) {
+                e.printStackTrace(); // catch any exceptions gracefully and log them to output console
+                read = false;
+            }
+            boolean complete = read;
+            Platform.runLater(() -> {
+                if (load != loadCount)
+                    return;
+                classStatisticsBuilding = false;
+                if (!complete)
+                    return;
+                // The current user is the only one whose statistics can have changed while they were being worked out
+                if (currentUser != null && !isInstructor(currentUser.getUsername()))
+                    built.update(currentUser);
+                classStatistics = built;
+                if (onClassStatisticsBuilt != null)
+                    onClassStatisticsBuilt.run();
+            });
+        });
+    }
 
-        try {
-            // Read user data from SaveData.json
-            Gson gson1 = new Gson();
-            JsonReader reader1 = new JsonReader(new FileReader(saveDataJson));
+    /**
+     * Checks whether a username is the instructor's, which opens instructor mode when they log in.
+     * @param username The username.
+     * @return True if it is the instructor's username, false otherwise.
+     */
+    static boolean isInstructor(String username) {
+        return "instructor".equals(username);
+    }
 
-            // Create acceptable Type for users array (userData)
-            Type listType1 = new TypeToken<List<User>>() {
-            }.getType();
+    /**
+     * Gets the top users on the leaderboard, reading them from its file if they haven't been read since the game
+     * loaded. If there is no saved leaderboard yet, or it can no longer be trusted, it is built again from every user
+     * in the background, and the leaderboard on hand is used until then.
+     * @return the leaderboard
+     */
+    static Leaderboard getLeaderboard() {
+        if (leaderboard == null) {
+            try {
+                if (leaderboardFile.exists()) {
+                    try (Reader reader = leaderboardFile.openReader()) {
+                        leaderboard = Leaderboard.read(reader, LEADERBOARD_SIZE);
+                    }
+                }
+            } catch (IOException e) {
+                e.printStackTrace(); // catch any exceptions gracefully and log them to output console
+            }
+            if (leaderboard == null)
+                leaderboard = Leaderboard.unbuilt(LEADERBOARD_SIZE);
+        }
+        if (!leaderboard.isExact())
+            buildLeaderboard();
+        return leaderboard;
+    }
 
-            // Convert JSON save data to List of User Objects
-            userData = gson1.fromJson(reader1, listType1);
+    /**
+     * Sets what to do once a leaderboard built in the background replaces the one shown, such as showing it.
+     * @param action the action, run on the JavaFX thread, or null to do nothing
+     */
+    static void setOnLeaderboardBuilt(Runnable action) {
+        onLeaderboardBuilt = action;
+    }
 
-            // Read game data from GameSaveData.json
-            Gson gson2 = new Gson();
-            JsonReader reader2 = new JsonReader(new FileReader(gameSaveDataJson));
+    /**
+     * Builds the leaderboard again from every user in the background, unless it is already being built. The users are
+     * read a page at a time in the order of the repository's index of user IDs.
+     */
+    private static void buildLeaderboard() {
+        if (leaderboardBuilding)
+            return;
+        leaderboardBuilding = true;
+        int load = loadCount;
+        int[] userIDs = repository.getUsernames().keySet().stream().mapToInt(Integer::intValue).toArray();
+        User[] loaded = getLoadedUsers(userIDs);
+        statisticsBuilder.execute(() -> {
+            Leaderboard built = new Leaderboard(LEADERBOARD_SIZE);
+            boolean read = true;
+            try {
+                readEveryUser(userIDs, loaded, built::update);
+            } catch (IOException e) {
+                e.printStackTrace(); // catch any exceptions gracefully and log them to output console
+                read = false;
+            }
+            boolean complete = read;
+            Platform.runLater(() -> {
+                if (load != loadCount)
+                    return;
+                leaderboardBuilding = false;
+                if (!complete)
+                    return;
+                // The current user is the only one whose statistics can have changed while it was being built
+                if (currentUser != null)
+                    built.update(currentUser);
+                leaderboard = built;
+                SaveWorker.submit(Map.of(leaderboardFile, leaderboard.toJson(gson)));
+                if (onLeaderboardBuilt != null)
+                    onLeaderboardBuilt.run();
+            });
+        });
+    }
 
-            // Create acceptable Type for GameSave array (gameData)
-            Type listType2 = new TypeToken<List<GameSave>>() {}.getType();
+    /**
+     * Reads every stored user a page at a time, using the copy in memory of any user who has one. Runs on a background
+     * thread.
+     * @param userIDs The users' IDs.
+     * @param loaded The copy in memory of each user, from {@link #getLoadedUsers(int[])}.
+     * @param action What to do with each user.
+     * @throws IOException If the users cannot be read.
+     */
+    private static void readEveryUser(int[] userIDs, User[] loaded, Consumer<User> action) throws IOException {
+        for (int from = 0; from < userIDs.length; from += BUILD_PAGE_SIZE) {
+            int to = Math.min(from + BUILD_PAGE_SIZE, userIDs.length);
+            List<Integer> page = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++)
+                page.add(userIDs[i]);
+            List<User> stored = repository.readUserPage(page);
+            for (int i = from; i < to; i++) {
+                User user = loaded[i] != null ? loaded[i] : stored.get(i - from);
+                if (user != null)
+                    action.accept(user);
+            }
+        }
+    }
 
-            // Convert JSON game save data to List of GameSave Objects
-            gameData = gson2.fromJson(reader2, listType2);
-            if (gameData.isEmpty())
-                gameData.add(new GameSave(0));
+    /**
+     * Gets the current user's rank on the leaderboard. A user outside the top users is only ranked if the memory-mapped
+     * statistics are turned on, since otherwise every user would have to be read.
+     * @return The rank starting at 1, or 0 if the user is outside the top users and can't be ranked.
+     */
+    static int getMyRank() {
+        int rank = getLeaderboard().rankOf(currentUser.getUserID());
+        if (rank == 0 && statsStore != null)
+            rank = getRankIndex().rankOf(currentUser.getUserID());
+        return rank;
+    }
 
+    /**
+     * Loads the user's saved game data from the {@link SaveRepository} (database).
+     * <br><br>
+     * Only an index of each user's username and ID is read up front, so that loading takes the same time and memory
+     * however many users there are. Full User/GameSave objects are only read when they are needed,
+     * such as at login or when opening the leaderboard.
+     */
+    public static void loadGame() {
+        rankIndex = null;
+        classStatistics = null;
+        leaderboard = null;
+        leaderboardBuilding = false;
+        classStatisticsBuilding = false;
+        loadCount++;
+        try {
+            repository.load();
         } catch (IOException e) {
             e.printStackTrace(); // catch any exceptions gracefully and log them to output console
         }
+
+        // Add instructor as user if there is no user data at all
+        if (repository.nextUserId() == 0)
+            repository.addUser(new User("instructor", "WorldsBestInstructor", 0));
+        // Add instructor game data if there is no game data for the instructor
+        if (repository.getGameSave(0) == null)
+            repository.addGameSave(new GameSave(0));
+
+        // Index every username from the repository's index, without reading any user
+        usernameIndex = UsernameIndex.of(repository.getUsernames());
+
+        // Copy the users loaded with the save data into the memory-mapped statistics store, which keeps the rest
+        if (STATS_STORE_ENABLED) {
+            try {
+                if (statsStore == null)
+                    statsStore = UserStatsStore.open(Path.of("./UserStats.bin"), Path.of("./UserStats.heap"));
+                statsStore.sync(repository);
+                SaveWorker.execute(forceStatsStore);
+            } catch (IOException e) {
+                e.printStackTrace(); // catch any exceptions gracefully and log them to output console
+            }
+        }
     }
 
     /**
@@ -381,11 +739,10 @@ public class MainMenu {
      */
     public static void deleteSaveGame() {
         hasSavedGame.set(false);
-        int playerID = currentUser.getUserID();
-        for (GameSave save : gameData) {
-            if (save.getUserId() == playerID) {
-                save.setGameSave(3, 0, 0, "00:00:00", -1, null);
-            }
+        GameSave save = repository.getGameSave(currentUser.getUserID());
+        if (save != null) {
+            save.setGameSave(3, 0, 0, "00:00:00", -1, null);
+            save.setCheckpoint(false);
         }
         saveGame();
     }
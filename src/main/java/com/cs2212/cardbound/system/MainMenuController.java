@@ -383,6 +383,7 @@ public class MainMenuController {
                 Gameplay.setScore(0);
                 Gameplay.setScoreMultiplier(1);
                 Gameplay.setTimerValue("00:00:00");
+                Gameplay.startNewRun();
                 AudioPlayer.fadeOutMusic(AudioPlayer.getMenuMusicPlayer(), 500);
                 SceneTools.fadeOutToScene(e, "gameplay.fxml", 500, rootPane);
             });
@@ -397,6 +398,7 @@ public class MainMenuController {
             Gameplay.setScore(0);
             Gameplay.setScoreMultiplier(1);
             Gameplay.setTimerValue("00:00:00");
+            Gameplay.startNewRun();
             AudioPlayer.fadeOutMusic(AudioPlayer.getMenuMusicPlayer(), 500);
             SceneTools.fadeOutToScene(e, "gameplay.fxml", 500, rootPane);
         }
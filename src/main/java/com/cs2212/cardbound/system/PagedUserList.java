@@ -0,0 +1,257 @@
+package com.cs2212.cardbound.system;
+
+import com.cs2212.cardbound.gameplay.User;
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * The rows of a table of users that only reads the users being shown, so that a roster of any size opens at once and
+ * scrolls smoothly without holding every user in memory.
+ * <br><br>
+ * The list is made from the user ID of every row, which the repository knows without reading any user, and reads the
+ * users themselves a page at a time with {@link SaveRepository#readUserPage(List)}. Pages are only ever read on a
+ * background thread, so the table never waits on the disk: a row whose page hasn't been read yet is empty, and its
+ * page is read and then swapped in with a list change, which the table redraws the rows for. Whenever the table moves
+ * to another page, the pages either side of it are read too, so scrolling on usually finds them ready. Only the most
+ * recently shown pages are kept, so scrolling through every user never holds more than {@link #MAX_PAGES} pages. A
+ * user who is already in memory, such as one who changed since they were stored, is shown as they are in memory.
+ * <br><br>
+ * The rows never change once the list is made, so it is never sorted or edited. A new list is made for new rows, such
+ * as when the search changes, or when the table is sorted with {@link #sort}, which puts the user IDs in order by
+ * reading the users a page at a time in the background.
+ * @version 1.0
+ */
+final class PagedUserList extends ObservableListBase<User> {
+
+    /**
+     * The number of users read at once
+     */
+    private static final int PAGE_SIZE = 100;
+    /**
+     * The most pages kept in memory at once
+     */
+    private static final int MAX_PAGES = 10;
+    /**
+     * The number of users read at once while sorting, which only keeps the values sorted by
+     */
+    private static final int SORT_PAGE_SIZE = 1000;
+    /**
+     * The background thread reading pages, shared by every list
+     */
+    private static final ExecutorService pageReader = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "Page Reader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The repository the users are read from
+     */
+    private final SaveRepository repository;
+    /**
+     * The user ID of every row
+     */
+    private final int[] userIDs;
+    /**
+     * The pages in memory by page number, with the one shown longest ago first so it is the first to go
+     */
+    private final Map<Integer, User[]> pages = new LinkedHashMap<>(MAX_PAGES + 1, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, User[]> eldest) {
+            return size() > MAX_PAGES;
+        }
+    };
+    /**
+     * The pages being read in the background
+     */
+    private final Set<Integer> reading = new HashSet<>();
+    /**
+     * The page the table last asked for, which the background thread checks so that it skips pages scrolled past
+     */
+    private volatile int shownPage = -1;
+
+    /**
+     * Creates the rows of a table.
+     * @param repository the repository the users are read from
+     * @param userIDs the user ID of every row, in the order they are shown
+     */
+    PagedUserList(SaveRepository repository, int[] userIDs) {
+        this.repository = repository;
+        this.userIDs = userIDs;
+    }
+
+    /**
+     * Gets a row, starting to read its page if it hasn't been read yet.
+     * @param index the row
+     * @return the user, or null until the row's page has been read
+     */
+    @Override
+    public User get(int index) {
+        Objects.checkIndex(index, userIDs.length);
+        int page = index / PAGE_SIZE;
+        if (page != shownPage) {
+            shownPage = page;
+            // The shown page is queued first, so it is read before the pages either side
+            readPage(page);
+            readPage(page - 1);
+            readPage(page + 1);
+        }
+        User[] rows = pages.get(page);
+        if (rows == null) {
+            // The page may have been dropped since the table last moved to it
+            readPage(page);
+            return null;
+        }
+        return rows[index % PAGE_SIZE];
+    }
+
+    @Override
+    public int size() {
+        return userIDs.length;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        // Searched by user ID, so finding a row never reads any page
+        if (o instanceof User user) {
+            for (int i = 0; i < userIDs.length; i++) {
+                if (userIDs[i] == user.getUserID())
+                    return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        if (o instanceof User user) {
+            for (int i = userIDs.length - 1; i >= 0; i--) {
+                if (userIDs[i] == user.getUserID())
+                    return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    /**
+     * Starts reading a page in the background, unless it is already in memory or being read. Once it is read, its rows
+     * are swapped in on the JavaFX thread.
+     * @param page the page number
+     */
+    private void readPage(int page) {
+        if (page < 0 || page * PAGE_SIZE >= userIDs.length || pages.containsKey(page) || !reading.add(page))
+            return;
+        List<Integer> pageIDs = idsOf(userIDs, page * PAGE_SIZE, Math.min((page + 1) * PAGE_SIZE, userIDs.length));
+        pageReader.execute(() -> {
+            // Skip the page if the table has already scrolled far past it
+            List<User> stored = Math.abs(page - shownPage) <= 1 ? read(pageIDs) : null;
+            Platform.runLater(() -> {
+                reading.remove(page);
+                if (stored == null || pages.containsKey(page))
+                    return;
+                pages.put(page, fill(pageIDs, stored));
+                // Tell the table the empty rows were replaced, so it shows the users
+                int from = page * PAGE_SIZE;
+                beginChange();
+                nextReplace(from, from + pageIDs.size(), Collections.nCopies(pageIDs.size(), null));
+                endChange();
+            });
+        });
+    }
+
+    /**
+     * Puts rows in order by a value of each row's user. The stored users are read a page at a time and only the value
+     * each one is sorted by is kept, so sorting never holds every user in memory. Runs on a background thread.
+     * @param repository the repository the users are read from
+     * @param userIDs the user ID of every row
+     * @param loaded the copy in memory of each row's user, found on the JavaFX thread beforehand, or null for a user
+     *               with none
+     * @param key gets the value a user is sorted by, given null for a user who could not be read
+     * @param order the order of the values
+     * @param <K> the type of value
+     * @return the user IDs in order
+     * @throws IOException if the users cannot be read
+     */
+    static <K> int[] sort(SaveRepository repository, int[] userIDs, User[] loaded, Function<User, K> key, Comparator<? super K> order) throws IOException {
+        List<K> keys = new ArrayList<>(userIDs.length);
+        for (int from = 0; from < userIDs.length; from += SORT_PAGE_SIZE) {
+            int to = Math.min(from + SORT_PAGE_SIZE, userIDs.length);
+            List<User> stored = repository.readUserPage(idsOf(userIDs, from, to));
+            for (int i = from; i < to; i++)
+                keys.add(key.apply(loaded[i] != null ? loaded[i] : stored.get(i - from)));
+        }
+
+        Integer[] rows = new Integer[userIDs.length];
+        for (int i = 0; i < rows.length; i++)
+            rows[i] = i;
+        Arrays.sort(rows, (a, b) -> order.compare(keys.get(a), keys.get(b)));
+        int[] sorted = new int[rows.length];
+        for (int i = 0; i < rows.length; i++)
+            sorted[i] = userIDs[rows[i]];
+        return sorted;
+    }
+
+    /**
+     * Gets the user IDs of a run of rows
+     * @param userIDs the user ID of every row
+     * @param from the first row
+     * @param to the row after the last
+     * @return the user IDs
+     */
+    private static List<Integer> idsOf(int[] userIDs, int from, int to) {
+        List<Integer> pageIDs = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++)
+            pageIDs.add(userIDs[i]);
+        return pageIDs;
+    }
+
+    /**
+     * Reads the stored users on a page. May run on the background thread.
+     * @param pageIDs the user IDs on the page
+     * @return the stored users, with null for any user that could not be read
+     */
+    private List<User> read(List<Integer> pageIDs) {
+        try {
+            return repository.readUserPage(pageIDs);
+        } catch (IOException e) {
+            e.printStackTrace(); // catch any exceptions gracefully and log them to output console
+            return new ArrayList<>(Collections.nCopies(pageIDs.size(), null));
+        }
+    }
+
+    /**
+     * Makes the rows of a page, using the copy in memory of any user who has one. Runs on the JavaFX thread, since the
+     * users in memory can change.
+     * @param pageIDs the user IDs on the page
+     * @param stored the stored users on the page
+     * @return the rows
+     */
+    private User[] fill(List<Integer> pageIDs, List<User> stored) {
+        User[] rows = new User[pageIDs.size()];
+        for (int i = 0; i < rows.length; i++) {
+            User loaded = repository.getLoadedUser(pageIDs.get(i));
+            rows[i] = loaded != null ? loaded : stored.get(i);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,312 @@
+package com.cs2212.cardbound.system;
+
+import com.cs2212.cardbound.gameplay.User;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The leaderboard order of every user, kept up to date as runs end instead of being sorted each time it is shown.
+ * <br><br>
+ * Users are ranked by best score from highest to lowest, then by best time from lowest to highest, then by user ID, so
+ * no two users ever share a rank. The order is kept in an AVL tree where every node also counts the nodes below it,
+ * which makes finding a user's rank, finding the user at a rank, and moving a user whose score changed all take
+ * O(log n). A window of k ranks is read in O(log n + k).
+ * @version 1.0
+ */
+final class RankIndex {
+
+    /**
+     * A user's place in the tree
+     */
+    private static final class Node {
+        private final int userID;
+        private final int score;
+        private final int time;
+        private Node left;
+        private Node right;
+        private int height = 1;
+        /**
+         * The number of nodes in the subtree rooted at this node, including itself
+         */
+        private int size = 1;
+
+        private Node(int userID, int score, int time) {
+            this.userID = userID;
+            this.score = score;
+            this.time = time;
+        }
+    }
+
+    /**
+     * The root of the tree, or null if the index is empty
+     */
+    private Node root;
+    /**
+     * Every user's node, by user ID, so that a user can be found in the tree without searching it
+     */
+    private final Map<Integer, Node> nodes = new HashMap<>();
+
+    /**
+     * Builds the index of a list of users.
+     * @param users the users
+     * @return the index
+     */
+    static RankIndex of(Iterable<User> users) {
+        RankIndex index = new RankIndex();
+        for (User user : users)
+            index.update(user);
+        return index;
+    }
+
+    /**
+     * Adds a user, or moves them to their new place if their best score or best time changed.
+     * @param user the user
+     */
+    void update(User user) {
+        update(user.getUserID(), user.getBestScore(), user.getBestTime());
+    }
+
+    /**
+     * Adds a user, or moves them to their new place if their best score or best time changed.
+     * @param userID the user's ID
+     * @param score the user's best score
+     * @param time the user's best time
+     */
+    void update(int userID, int score, int time) {
+        Node old = nodes.get(userID);
+        if (old != null) {
+            if (old.score == score && old.time == time)
+                return;
+            root = remove(root, old);
+        }
+        Node node = new Node(userID, score, time);
+        nodes.put(userID, node);
+        root = insert(root, node);
+    }
+
+    /**
+     * Removes a user.
+     * @param userID the user's ID
+     */
+    void remove(int userID) {
+        Node node = nodes.remove(userID);
+        if (node != null)
+            root = remove(root, node);
+    }
+
+    /**
+     * Gets the number of users in the index.
+     * @return the number of users
+     */
+    int size() {
+        return sizeOf(root);
+    }
+
+    /**
+     * Gets a user's rank.
+     * @param userID the user's ID
+     * @return the user's rank starting at 1, or 0 if the user is not in the index
+     */
+    int rankOf(int userID) {
+        Node target = nodes.get(userID);
+        if (target == null)
+            return 0;
+        int rank = 1;
+        Node node = root;
+        while (node != target) {
+            if (compare(target, node) < 0) {
+                node = node.left;
+            } else {
+                rank += sizeOf(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return rank + sizeOf(target.left);
+    }
+
+    /**
+     * Gets the user at a rank.
+     * @param rank the rank, starting at 1
+     * @return the user's ID, or -1 if no user has that rank
+     */
+    int userAt(int rank) {
+        int[] window = window(rank, 1);
+        return window.length > 0 ? window[0] : -1;
+    }
+
+    /**
+     * Gets the users at a range of ranks, in rank order.
+     * @param fromRank the first rank, starting at 1
+     * @param count the number of ranks
+     * @return the user IDs, which are fewer than count if the range runs past the last rank
+     */
+    int[] window(int fromRank, int count) {
+        if (fromRank < 1 || count <= 0 || fromRank > size())
+            return new int[0];
+        int[] window = new int[Math.min(count, size() - fromRank + 1)];
+
+        // Walk down to the first rank, keeping every node still to be visited after it on the stack
+        Deque<Node> stack = new ArrayDeque<>();
+        Node node = root;
+        int skip = fromRank - 1;
+        while (node != null) {
+            int leftSize = sizeOf(node.left);
+            if (skip < leftSize) {
+                stack.push(node);
+                node = node.left;
+            } else if (skip == leftSize) {
+                stack.push(node);
+                break;
+            } else {
+                skip -= leftSize + 1;
+                node = node.right;
+            }
+        }
+
+        // Then read the ranks in order
+        for (int i = 0; i < window.length; i++) {
+            node = stack.pop();
+            window[i] = node.userID;
+            for (Node next = node.right; next != null; next = next.left)
+                stack.push(next);
+        }
+        return window;
+    }
+
+    /**
+     * Compares two users by their place on the leaderboard.
+     * @param a the first user
+     * @param b the second user
+     * @return a negative number if a ranks above b, a positive number if b ranks above a, or 0 if they are the same user
+     */
+    private static int compare(Node a, Node b) {
+        if (a.score != b.score)
+            return Integer.compare(b.score, a.score);
+        if (a.time != b.time)
+            return Integer.compare(a.time, b.time);
+        return Integer.compare(a.userID, b.userID);
+    }
+
+    /**
+     * Adds a node to a subtree.
+     * @param subtree the subtree, or null
+     * @param node the node to add
+     * @return the new root of the subtree
+     */
+    private static Node insert(Node subtree, Node node) {
+        if (subtree == null)
+            return node;
+        if (compare(node, subtree) < 0)
+            subtree.left = insert(subtree.left, node);
+        else
+            subtree.right = insert(subtree.right, node);
+        return balance(subtree);
+    }
+
+    /**
+     * Removes a node from a subtree. The node itself is unlinked rather than having another node's values copied into
+     * it, so that every other node stays the same object.
+     * @param subtree the subtree holding the node
+     * @param node the node to remove
+     * @return the new root of the subtree
+     */
+    private static Node remove(Node subtree, Node node) {
+        if (subtree == node) {
+            if (node.left == null || node.right == null)
+                return node.left != null ? node.left : node.right;
+            // Put the next node in order in the removed node's place
+            Node successor = node.right;
+            while (successor.left != null)
+                successor = successor.left;
+            successor.right = removeFirst(node.right);
+            successor.left = node.left;
+            return balance(successor);
+        }
+        if (compare(node, subtree) < 0)
+            subtree.left = remove(subtree.left, node);
+        else
+            subtree.right = remove(subtree.right, node);
+        return balance(subtree);
+    }
+
+    /**
+     * Removes the first node in order from a subtree.
+     * @param subtree the subtree
+     * @return the new root of the subtree
+     */
+    private static Node removeFirst(Node subtree) {
+        if (subtree.left == null)
+            return subtree.right;
+        subtree.left = removeFirst(subtree.left);
+        return balance(subtree);
+    }
+
+    /**
+     * Updates a node's height and size and rotates it if its subtrees differ in height by more than one.
+     * @param node the node
+     * @return the new root of the node's subtree
+     */
+    private static Node balance(Node node) {
+        refresh(node);
+        int difference = heightOf(node.left) - heightOf(node.right);
+        if (difference > 1) {
+            if (heightOf(node.left.left) < heightOf(node.left.right))
+                node.left = rotateLeft(node.left);
+            return rotateRight(node);
+        }
+        if (difference < -1) {
+            if (heightOf(node.right.right) < heightOf(node.right.left))
+                node.right = rotateRight(node.right);
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    /**
+     * Rotates a subtree to the right, making its left child the new root.
+     * @param node the root of the subtree
+     * @return the new root
+     */
+    private static Node rotateRight(Node node) {
+        Node child = node.left;
+        node.left = child.right;
+        child.right = node;
+        refresh(node);
+        refresh(child);
+        return child;
+    }
+
+    /**
+     * Rotates a subtree to the left, making its right child the new root.
+     * @param node the root of the subtree
+     * @return the new root
+     */
+    private static Node rotateLeft(Node node) {
+        Node child = node.right;
+        node.right = child.left;
+        child.left = node;
+        refresh(node);
+        refresh(child);
+        return child;
+    }
+
+    /**
+     * Recalculates a node's height and size from its children.
+     * @param node the node
+     */
+    private static void refresh(Node node) {
+        node.height = Math.max(heightOf(node.left), heightOf(node.right)) + 1;
+        node.size = sizeOf(node.left) + sizeOf(node.right) + 1;
+    }
+
+    private static int heightOf(Node node) {
+        return node != null ? node.height : 0;
+    }
+
+    private static int sizeOf(Node node) {
+        return node != null ? node.size : 0;
+    }
+}
@@ -0,0 +1,148 @@
+package com.cs2212.cardbound.system;
+
+import com.cs2212.cardbound.gameplay.GameSave;
+import com.cs2212.cardbound.gameplay.User;
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * Times the save backends against each other on the same generated class of users, without JavaFX.
+ * <br><br>
+ * Each backend is filled in its own temporary directory, then loaded again from disk and timed on the work the game
+ * does with it: logging users in, saving one changed user at a time, and reading a page of the user table.
+ * @version 1.0
+ */
+public final class SaveBackendBenchmark {
+
+    /**
+     * The number of logins, single-user saves and table rows timed on each backend
+     */
+    private static final int OPERATIONS = 1000;
+
+    private SaveBackendBenchmark() {
+    }
+
+    /**
+     * A way of creating a backend's repository in a directory
+     */
+    private interface Backend {
+        SaveRepository create(Gson gson, Path directory);
+    }
+
+    /**
+     * Runs the benchmark from the command line and prints a row of timings for each backend.
+     * <br>
+     * Arguments, all optional: number of users, seed, and the backends to time ({@code json}, {@code filestore} or
+     * {@code sharded}, all three by default).
+     * @param args the command line arguments
+     * @throws IOException if a backend cannot read or write its save files
+     */
+    public static void main(String[] args) throws IOException {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+        List<String> backends = args.length > 2 ? List.of(args).subList(2, args.length) : List.of("json", "filestore", "sharded");
+
+        System.out.printf("%,d users, %,d operations each (seed %d)%n", users, OPERATIONS, seed);
+        System.out.printf("%-10s %10s %10s %12s %12s %12s%n", "backend", "fill ms", "load ms", "login us", "save us", "page ms");
+        for (String name : backends) {
+            Backend backend = switch (name) {
+                case "filestore" -> FileStoreSaveRepository::new;
+                case "sharded" -> ShardedSaveRepository::new;
+                case "json" -> JsonSaveRepository::new;
+                default -> throw new IllegalArgumentException("Unknown save backend " + name);
+            };
+            Path directory = Files.createTempDirectory("cardbound-" + name);
+            try {
+                run(name, backend, directory, users, seed);
+            } finally {
+                delete(directory);
+            }
+        }
+    }
+
+    /**
+     * Times one backend and prints its row.
+     * @param name the backend's name
+     * @param backend creates the backend's repository
+     * @param directory the empty directory to keep the save files in
+     * @param users the number of users to fill the backend with
+     * @param seed the seed for picking users, so every backend is timed on the same ones
+     * @throws IOException if the backend cannot read or write its save files
+     */
+    private static void run(String name, Backend backend, Path directory, int users, long seed) throws IOException {
+        Gson gson = new Gson();
+
+        // Fill the backend with every user and a game save for each, and wait for them to reach the disk
+        long start = System.nanoTime();
+        SaveRepository repository = backend.create(gson, directory);
+        repository.load();
+        for (int i = 0; i < users; i++) {
+            int userID = repository.nextUserId();
+            User user = new User("user" + userID, "password", userID);
+            user.setBestScore(i);
+            repository.addUser(user);
+            repository.addGameSave(new GameSave(userID));
+        }
+        repository.save();
+        SaveWorker.flush();
+        long fill = System.nanoTime() - start;
+
+        // Load it again the way the game starts
+        start = System.nanoTime();
+        repository = backend.create(gson, directory);
+        repository.load();
+        long load = System.nanoTime() - start;
+
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Integer> userIDs = new ArrayList<>(repository.getUsernames().keySet());
+
+        // Log in users that haven't been read since the load
+        start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            int userID = userIDs.get(random.nextInt(userIDs.size()));
+            repository.findUser(repository.getUsernames().get(userID), "password");
+        }
+        long login = System.nanoTime() - start;
+
+        // Save one changed user at a time, as each finished run does
+        start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            User user = repository.getUser(userIDs.get(random.nextInt(userIDs.size())));
+            user.setBestScore(user.getBestScore() + 1);
+            repository.save();
+        }
+        SaveWorker.flush();
+        long save = System.nanoTime() - start;
+
+        // Read a page of the user table
+        List<Integer> page = new ArrayList<>();
+        for (int i = 0; i < OPERATIONS; i++)
+            page.add(userIDs.get(random.nextInt(userIDs.size())));
+        start = System.nanoTime();
+        repository.readUserPage(page);
+        long read = System.nanoTime() - start;
+
+        System.out.printf("%-10s %10.1f %10.1f %12.1f %12.1f %12.1f%n", name, fill / 1e6, load / 1e6,
+                login / 1e3 / OPERATIONS, save / 1e3 / OPERATIONS, read / 1e6);
+    }
+
+    /**
+     * Deletes a temporary directory and everything in it.
+     * @param directory the directory
+     * @throws IOException if a file cannot be deleted
+     */
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(path);
+        }
+    }
+}
@@ -0,0 +1,475 @@
+package com.cs2212.cardbound.system;
+
+import com.cs2212.cardbound.gameplay.GameSave;
+import com.cs2212.cardbound.gameplay.User;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * A small index of the two save files, so that single users and game saves can be read without loading every one.
+ * <br><br>
+ * Building the index streams through both files with Gson's {@link JsonReader} token API, and keeps only each user's
+ * username and ID and each game save's user ID, along with the byte position and length of the record in its file. No
+ * User or GameSave objects are made, and no record is held in memory as text. JsonReader doesn't say where its tokens
+ * are, so the files are fed to it one character at a time by a {@link PositionReader} that counts the bytes each
+ * character took, which gives the position of the record the reader has just reached. A record is then read on demand
+ * by reading just its bytes and converting only that one, so reading a user costs the same wherever they are in the
+ * file. The whole list can still be read at once for screens that show every user.
+ * <br><br>
+ * The positions only hold for the contents that were indexed. If a save file has been written since, such as by a
+ * journal compaction, it is indexed again before anything is read from it. Records can also be read from a background
+ * thread, so every read is synchronized.
+ * @version 1.0
+ */
+final class SaveIndex {
+
+    /**
+     * The type of the user save file
+     */
+    private static final Type USER_LIST = new TypeToken<List<User>>() {}.getType();
+    /**
+     * The type of the game save file
+     */
+    private static final Type GAME_SAVE_LIST = new TypeToken<List<GameSave>>() {}.getType();
+
+    /**
+     * Where a record sits in its save file
+     * @param position the position of the record's first byte
+     * @param length the length of the record in bytes
+     */
+    private record Span(long position, int length) {}
+
+    /**
+     * The fields of a record that the index keeps
+     * @param userID the user ID of the record
+     * @param username the username of a user, or null for a game save
+     */
+    private record Fields(int userID, String username) {}
+
+    /**
+     * Reads the fields the index needs from one record
+     */
+    @FunctionalInterface
+    private interface FieldReader {
+        /**
+         * Reads a record's fields, leaving the reader at the end of the record
+         * @param reader the reader positioned inside the record's object
+         * @return the fields the index keeps
+         * @throws IOException if the record cannot be read
+         */
+        Fields read(JsonReader reader) throws IOException;
+    }
+
+    /**
+     * The Gson instance used to read records
+     */
+    private final Gson gson;
+    /**
+     * The save file holding every user
+     */
+    private final SlotFile userFile;
+    /**
+     * The save file holding every game save
+     */
+    private final SlotFile gameSaveFile;
+    /**
+     * The ID of the first user with each username
+     */
+    private final Map<String, Integer> userIdsByName = new HashMap<>();
+    /**
+     * The IDs of the other users with each username that more than one user has
+     */
+    private final Map<String, List<Integer>> sharedUserIds = new HashMap<>();
+    /**
+     * Where each user is in the user save file, by user ID
+     */
+    private final Map<Integer, Span> userSpans = new HashMap<>();
+    /**
+     * Where each game save is in the game save file, by user ID
+     */
+    private final Map<Integer, Span> gameSaveSpans = new HashMap<>();
+    /**
+     * The generation of the user save file that was indexed
+     */
+    private long userGeneration;
+    /**
+     * The generation of the game save file that was indexed
+     */
+    private long gameSaveGeneration;
+    /**
+     * The highest user ID in the user save file, or -1 if it is empty
+     */
+    private int highestUserId = -1;
+
+    /**
+     * Creates an empty index.
+     * @param gson the Gson instance used to read records
+     * @param userFile the save file holding every user
+     * @param gameSaveFile the save file holding every game save
+     */
+    private SaveIndex(Gson gson, SlotFile userFile, SlotFile gameSaveFile) {
+        this.gson = gson;
+        this.userFile = userFile;
+        this.gameSaveFile = gameSaveFile;
+    }
+
+    /**
+     * Builds the index of two save files.
+     * @param gson the Gson instance used to read records
+     * @param userFile the save file holding every user
+     * @param gameSaveFile the save file holding every game save
+     * @return the index
+     * @throws IOException if a file cannot be read or holds a damaged record
+     */
+    static SaveIndex build(Gson gson, SlotFile userFile, SlotFile gameSaveFile) throws IOException {
+        SaveIndex index = new SaveIndex(gson, userFile, gameSaveFile);
+        index.indexUsers();
+        index.indexGameSaves();
+        return index;
+    }
+
+    /**
+     * Indexes the user save file, replacing anything indexed from it before.
+     * @throws IOException if the file cannot be read or holds a damaged record
+     */
+    private synchronized void indexUsers() throws IOException {
+        userSpans.clear();
+        userIdsByName.clear();
+        sharedUserIds.clear();
+        highestUserId = -1;
+
+        InputStream in;
+        synchronized (userFile) {
+            userGeneration = userFile.getGeneration();
+            in = userFile.openStream();
+        }
+        scanRecords(in, reader -> {
+            int id = 0;
+            String username = null;
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "userID" -> id = reader.nextInt();
+                    case "username" -> username = readString(reader);
+                    default -> reader.skipValue();
+                }
+            }
+            return new Fields(id, username);
+        }, (fields, span) -> {
+            int id = fields.userID();
+            String username = fields.username();
+            userSpans.put(id, span);
+            highestUserId = Math.max(highestUserId, id);
+            if (username != null && userIdsByName.putIfAbsent(username, id) != null)
+                sharedUserIds.computeIfAbsent(username, name -> new ArrayList<>()).add(id);
+        });
+    }
+
+    /**
+     * Indexes the game save file, replacing anything indexed from it before.
+     * @throws IOException if the file cannot be read or holds a damaged record
+     */
+    private synchronized void indexGameSaves() throws IOException {
+        gameSaveSpans.clear();
+
+        InputStream in;
+        synchronized (gameSaveFile) {
+            gameSaveGeneration = gameSaveFile.getGeneration();
+            in = gameSaveFile.openStream();
+        }
+        scanRecords(in, reader -> {
+            int id = 0;
+            while (reader.hasNext()) {
+                if (reader.nextName().equals("userId"))
+                    id = reader.nextInt();
+                else
+                    reader.skipValue();
+            }
+            return new Fields(id, null);
+        }, (fields, span) -> gameSaveSpans.putIfAbsent(fields.userID(), span));
+    }
+
+    /**
+     * Streams through a save file's list of records with a {@link JsonReader}, reading each record's fields and finding
+     * the bytes it takes up.
+     * @param in the contents of the save file, which is closed once they are read
+     * @param fields reads the fields of each record
+     * @param records told the fields and place of each record
+     * @throws IOException if the file cannot be read or a record is damaged
+     */
+    private static void scanRecords(InputStream in, FieldReader fields, BiConsumer<Fields, Span> records) throws IOException {
+        try (PositionReader source = new PositionReader(in); JsonReader reader = new JsonReader(source)) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                    reader.skipValue();
+                    continue;
+                }
+                // Peeking reads exactly up to the record's opening brace, which is a single byte
+                long start = source.getPosition() - 1;
+                reader.beginObject();
+                Fields recordFields = fields.read(reader);
+                reader.endObject();
+                // Ending the object reads exactly up to its closing brace
+                records.accept(recordFields, new Span(start, (int) (source.getPosition() - start)));
+            }
+            reader.endArray();
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("A save file has a damaged record", e);
+        }
+    }
+
+    /**
+     * Reads a string value that may be null
+     * @param reader the reader positioned at the value
+     * @return the string, or null
+     * @throws IOException if the value cannot be read
+     */
+    private static String readString(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+
+    /**
+     * Gets every username in the user save file with the ID of the first user to have it
+     * @return the user IDs by username
+     */
+    Map<String, Integer> getUserIdsByName() {
+        return userIdsByName;
+    }
+
+    /**
+     * Gets the usernames that more than one user in the file has, with the IDs of every user after the first to have
+     * each one
+     * @return the IDs of the other users with each shared username
+     */
+    Map<String, List<Integer>> getSharedUserIds() {
+        return sharedUserIds;
+    }
+
+    /**
+     * Gets the highest user ID in the user save file
+     * @return the highest user ID, or -1 if there are no users
+     */
+    synchronized int getHighestUserId() {
+        return highestUserId;
+    }
+
+    /**
+     * Gets the number of users in the user save file
+     * @return the number of users
+     */
+    synchronized int getUserCount() {
+        return userSpans.size();
+    }
+
+    /**
+     * Gets the number of game saves in the game save file
+     * @return the number of game saves
+     */
+    synchronized int getGameSaveCount() {
+        return gameSaveSpans.size();
+    }
+
+    /**
+     * Reads one user from the user save file
+     * @param userID the user's ID
+     * @return the user, or null if the file has no user with that ID
+     * @throws IOException if the file cannot be read
+     */
+    User readUser(int userID) throws IOException {
+        return readUsers(List.of(userID)).get(0);
+    }
+
+    /**
+     * Reads one game save from the game save file
+     * @param userID the ID of the game save's user
+     * @return the game save, or null if the file has no game save for that user
+     * @throws IOException if the file cannot be read
+     */
+    GameSave readGameSave(int userID) throws IOException {
+        return readRecords(gameSaveFile, List.of(userID), GameSave.class).get(0);
+    }
+
+    /**
+     * Reads a set of users from the user save file, such as a page of a table
+     * @param userIDs the users' IDs
+     * @return the users in the same order, with null for any user the file doesn't have
+     * @throws IOException if the file cannot be read
+     */
+    List<User> readUsers(List<Integer> userIDs) throws IOException {
+        return readRecords(userFile, userIDs, User.class);
+    }
+
+    /**
+     * Reads every user from the user save file
+     * @return the users, in file order
+     * @throws IOException if the file cannot be read
+     */
+    List<User> readUsers() throws IOException {
+        return readAll(userFile, USER_LIST);
+    }
+
+    /**
+     * Reads every game save from the game save file
+     * @return the game saves, in file order
+     * @throws IOException if the file cannot be read
+     */
+    List<GameSave> readGameSaves() throws IOException {
+        return readAll(gameSaveFile, GAME_SAVE_LIST);
+    }
+
+    /**
+     * Reads a set of records from a save file by seeking straight to each one, indexing the file again first if it has
+     * been written since it was indexed
+     * @param file the save file
+     * @param userIDs the user IDs of the records
+     * @param type the type of record
+     * @param <T> the type of record
+     * @return the records in the same order, with null for any record the file doesn't have
+     * @throws IOException if the file cannot be read or is shorter than expected
+     */
+    private synchronized <T> List<T> readRecords(SlotFile file, List<Integer> userIDs, Class<T> type) throws IOException {
+        boolean users = file == userFile;
+        for (int attempt = 0; ; attempt++) {
+            Map<Integer, Span> spans = users ? userSpans : gameSaveSpans;
+            long[] positions = new long[userIDs.size()];
+            int[] lengths = new int[userIDs.size()];
+            for (int i = 0; i < userIDs.size(); i++) {
+                Span span = spans.get(userIDs.get(i));
+                if (span != null) {
+                    positions[i] = span.position();
+                    lengths[i] = span.length();
+                }
+            }
+
+            byte[][] parts = file.read(users ? userGeneration : gameSaveGeneration, positions, lengths);
+            if (parts == null) {
+                if (attempt > 0)
+                    throw new IOException(file.getPath() + " changed while it was being indexed");
+                // The file was written since it was indexed, so the positions no longer hold
+                if (users)
+                    indexUsers();
+                else
+                    indexGameSaves();
+                continue;
+            }
+
+            List<T> records = new ArrayList<>(userIDs.size());
+            for (byte[] part : parts) {
+                try {
+                    records.add(part.length > 0 ? gson.fromJson(new String(part, StandardCharsets.UTF_8), type) : null);
+                } catch (JsonParseException e) {
+                    throw new IOException(file.getPath() + " has a damaged record", e);
+                }
+            }
+            return records;
+        }
+    }
+
+    /**
+     * Reads a whole save file
+     * @param file the save file
+     * @param type the type of list in the file
+     * @param <T> the type of record
+     * @return the records, or an empty list if the file holds none
+     * @throws IOException if the file cannot be read
+     */
+    private <T> List<T> readAll(SlotFile file, Type type) throws IOException {
+        try (JsonReader reader = new JsonReader(file.openReader())) {
+            List<T> records = gson.fromJson(reader, type);
+            return records != null ? records : new ArrayList<>();
+        }
+    }
+
+    /**
+     * Decodes UTF-8 one character at a time while counting the bytes decoded. A {@link JsonReader} only reads as far
+     * as it needs to, so when it is given a single character per read, the count is the position just after the last
+     * character it looked at.
+     */
+    private static final class PositionReader extends Reader {
+
+        private final InputStream in;
+        private long position;
+        private int pendingLowSurrogate = -1;
+
+        private PositionReader(InputStream in) {
+            this.in = new BufferedInputStream(in, 64 * 1024);
+        }
+
+        /**
+         * Gets the number of bytes decoded so far
+         * @return the position after the last character read
+         */
+        long getPosition() {
+            return position;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int count) throws IOException {
+            if (count == 0)
+                return 0;
+            int c = read();
+            if (c < 0)
+                return -1;
+            buffer[offset] = (char) c;
+            return 1;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (pendingLowSurrogate >= 0) {
+                int low = pendingLowSurrogate;
+                pendingLowSurrogate = -1;
+                return low;
+            }
+
+            int first = in.read();
+            if (first < 0)
+                return -1;
+            position++;
+            if (first < 0x80)
+                return first;
+
+            // The lead byte says how many continuation bytes follow
+            int extra = first >= 0xF0 ? 3 : first >= 0xE0 ? 2 : first >= 0xC0 ? 1 : 0;
+            int codePoint = first & (0x3F >> extra);
+            for (int i = 0; i < extra; i++) {
+                int next = in.read();
+                if (next < 0)
+                    return 0xFFFD;
+                position++;
+                codePoint = codePoint << 6 | (next & 0x3F);
+            }
+            if (extra == 0 || !Character.isValidCodePoint(codePoint))
+                return 0xFFFD;
+            if (Character.isSupplementaryCodePoint(codePoint)) {
+                pendingLowSurrogate = Character.lowSurrogate(codePoint);
+                return Character.highSurrogate(codePoint);
+            }
+            return codePoint;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.cs2212.cardbound.system;
+
+import com.cs2212.cardbound.gameplay.GameSave;
+import com.cs2212.cardbound.gameplay.User;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * An append-only log of changed users and game saves, kept next to the two save files.
+ * <br><br>
+ * Each time the game saves, every changed record is added to the end of the journal as one line of JSON holding the
+ * whole record, instead of the save files being rewritten. Adding a line is cheap, so the game can checkpoint a run as
+ * often as it likes. When the game loads, the journal is replayed over the save files, with later lines replacing
+ * earlier versions of the same record. Every so often the journal is compacted in the background: it is folded into new
+ * save files and then emptied. A line cut short by a crash is cut off the journal when it loads, so the next line
+ * added starts cleanly, and any other line that cannot be read is skipped.
+ * @version 1.0
+ */
+final class SaveJournal {
+
+    /**
+     * The name of a journal line holding a user
+     */
+    private static final String USER = "user";
+    /**
+     * The name of a journal line holding a game save
+     */
+    private static final String GAME_SAVE = "gameSave";
+    /**
+     * The type of the user save file
+     */
+    private static final Type USER_LIST = new TypeToken<List<User>>() {}.getType();
+    /**
+     * The type of the game save file
+     */
+    private static final Type GAME_SAVE_LIST = new TypeToken<List<GameSave>>() {}.getType();
+
+    /**
+     * The Gson instance used to read and write records
+     */
+    private final Gson gson;
+    /**
+     * The journal file
+     */
+    private final Path journalFile;
+    /**
+     * The save file holding every user
+     */
+    private final SlotFile userFile;
+    /**
+     * The save file holding every game save
+     */
+    private final SlotFile gameSaveFile;
+    /**
+     * The task that folds the journal into the save files, queued on the {@link SaveWorker}
+     */
+    private final SaveWorker.Task compaction = this::compact;
+    /**
+     * Lines that could not be added to the journal, which are added again with the next save
+     */
+    private final Queue<String> unwritten = new ConcurrentLinkedQueue<>();
+    /**
+     * Hands lines that could not be written back to the journal. Kept in a field so that appends queued one after
+     * another are recognised as going to the same place and written together.
+     */
+    private final Consumer<String> handBack = unwritten::add;
+
+    /**
+     * Creates a journal for a pair of save files.
+     * @param gson the Gson instance used to read and write records
+     * @param journalFile the journal file
+     * @param userFile the save file holding every user
+     * @param gameSaveFile the save file holding every game save
+     */
+    SaveJournal(Gson gson, Path journalFile, SlotFile userFile, SlotFile gameSaveFile) {
+        this.gson = gson;
+        this.journalFile = journalFile;
+        this.userFile = userFile;
+        this.gameSaveFile = gameSaveFile;
+    }
+
+    /**
+     * Converts a user to a journal line
+     * @param user the user
+     * @return the line, ending with a line break
+     */
+    String entry(User user) {
+        return entry(USER, user);
+    }
+
+    /**
+     * Converts a game save to a journal line
+     * @param gameSave the game save
+     * @return the line, ending with a line break
+     */
+    String entry(GameSave gameSave) {
+        return entry(GAME_SAVE, gameSave);
+    }
+
+    /**
+     * Converts a record to a journal line
+     * @param name the kind of record
+     * @param record the record
+     * @return the line, ending with a line break
+     */
+    private String entry(String name, Object record) {
+        JsonObject line = new JsonObject();
+        line.add(name, gson.toJsonTree(record));
+        return gson.toJson(line) + "\n";
+    }
+
+    /**
+     * Queues lines to be added to the journal in the background. If they can't be written, the failure is logged and
+     * the lines are kept for {@link #takeUnwritten()}.
+     * @param lines the lines to add
+     */
+    void append(String lines) {
+        SaveWorker.append(journalFile, lines, handBack);
+    }
+
+    /**
+     * Takes every line that could not be added to the journal, so the next save can add them again. The lines start
+     * with a line break, in case the failed write left part of a line at the end of the journal.
+     * @return the lines, or an empty string if every line was written
+     */
+    String takeUnwritten() {
+        StringBuilder lines = new StringBuilder();
+        for (String failed = unwritten.poll(); failed != null; failed = unwritten.poll())
+            lines.append(failed);
+        return lines.isEmpty() ? "" : "\n" + lines;
+    }
+
+    /**
+     * Queues a compaction of the journal in the background, after everything already queued
+     */
+    void requestCompaction() {
+        SaveWorker.execute(compaction);
+    }
+
+    /**
+     * Cuts a line left half written by a crash off the end of the journal, before it is replayed and added to again.
+     * @throws IOException if the journal cannot be read or written
+     */
+    void repair() throws IOException {
+        SaveWorker.cutTornLine(journalFile);
+    }
+
+    /**
+     * Replays the journal, passing every record in it to a consumer in the order they were added. Later versions of a
+     * record replace earlier ones, so the consumers should keep the last record they get for each user ID.
+     * @param users the consumer of each user in the journal
+     * @param gameSaves the consumer of each game save in the journal
+     * @return the number of journal lines replayed
+     * @throws IOException if the journal exists but cannot be read
+     */
+    int replay(Consumer<User> users, Consumer<GameSave> gameSaves) throws IOException {
+        if (!Files.isRegularFile(journalFile))
+            return 0;
+
+        int replayed = 0;
+        try (BufferedReader reader = Files.newBufferedReader(journalFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank())
+                    continue;
+                try {
+                    JsonObject entry = JsonParser.parseString(line).getAsJsonObject();
+                    if (entry.has(USER))
+                        users.accept(gson.fromJson(entry.get(USER), User.class));
+                    else if (entry.has(GAME_SAVE))
+                        gameSaves.accept(gson.fromJson(entry.get(GAME_SAVE), GameSave.class));
+                    replayed++;
+                } catch (JsonParseException | IllegalStateException e) {
+                    // A damaged line only loses its own record, so keep going to replay every save after it
+                    e.printStackTrace(); // catch any exceptions gracefully and log them to output console
+                }
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * Folds the journal into the save files and empties it. Runs on the {@link SaveWorker} thread.
+     * @throws IOException if the save files or the journal cannot be read or written
+     */
+    private void compact() throws IOException {
+        if (!Files.isRegularFile(journalFile) || Files.size(journalFile) == 0)
+            return;
+
+        // Records keep their place in the files, and records that are new since the files were written go at the end
+        Map<Integer, User> users = new LinkedHashMap<>();
+        for (User user : this.<User>read(userFile, USER_LIST))
+            users.put(user.getUserID(), user);
+        Map<Integer, GameSave> gameSaves = new LinkedHashMap<>();
+        for (GameSave gameSave : this.<GameSave>read(gameSaveFile, GAME_SAVE_LIST))
+            gameSaves.put(gameSave.getUserId(), gameSave);
+        replay(user -> users.put(user.getUserID(), user), gameSave -> gameSaves.put(gameSave.getUserId(), gameSave));
+
+        // The journal is only emptied once the new save files are in place, so a crash in between replays it again
+        userFile.write(gson.toJson(new ArrayList<>(users.values())));
+        gameSaveFile.write(gson.toJson(new ArrayList<>(gameSaves.values())));
+        SaveWorker.writeAtomically(journalFile, "");
+    }
+
+    /**
+     * Reads a save file
+     * @param file the save file
+     * @param type the type of list in the file
+     * @param <T> the type of record
+     * @return the records in the file, or an empty list if the file does not exist
+     * @throws IOException if the file cannot be read
+     */
+    private <T> List<T> read(SlotFile file, Type type) throws IOException {
+        if (!file.exists())
+            return new ArrayList<>();
+        try (Reader reader = file.openReader()) {
+            List<T> records = gson.fromJson(reader, type);
+            return records != null ? records : new ArrayList<>();
+        }
+    }
+}
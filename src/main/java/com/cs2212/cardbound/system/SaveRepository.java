@@ -0,0 +1,104 @@
+package com.cs2212.cardbound.system;
+
+import com.cs2212.cardbound.gameplay.GameSave;
+import com.cs2212.cardbound.gameplay.User;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where every user and game save is kept between runs of the game.
+ * <br><br>
+ * {@link MainMenu} only talks to the save data through this interface, so the way it is stored on disk can be swapped
+ * out. The game picks a backend with {@code -Dcardbound.saveBackend}: {@code json} (the default) keeps the
+ * SaveData.json and GameSaveData.json files, {@code filestore} keeps one log-structured file with its own index, and
+ * {@code sharded} keeps a file for each user under a hashed directory tree.
+ * <br><br>
+ * Records are read on demand, so a repository may hold only the users and game saves that have been asked for. Every
+ * record given out is the one the repository saves, so changing a record and calling {@link #save()} is enough to
+ * store the change.
+ * @version 1.0
+ */
+public interface SaveRepository {
+
+    /**
+     * Reads the stored save data, forgetting anything held from before.
+     * @throws IOException if the stored data exists but cannot be read
+     */
+    void load() throws IOException;
+
+    /**
+     * Writes every record that changed since the last save. The writing may finish in the background.
+     */
+    void save();
+
+    /**
+     * Finds the user with a username and password.
+     * @param username the username
+     * @param password the password
+     * @return the user, or null if no user has that username and password
+     */
+    User findUser(String username, String password);
+
+    /**
+     * Gets a user.
+     * @param userID the user's ID
+     * @return the user, or null if there is no user with that ID
+     */
+    User getUser(int userID);
+
+    /**
+     * Gets a user's game save.
+     * @param userID the user's ID
+     * @return the game save, or null if the user has no game save
+     */
+    GameSave getGameSave(int userID);
+
+    /**
+     * Gets every user, in the order they were created.
+     * @return every user
+     */
+    List<User> getUsers();
+
+    /**
+     * Gets every user's username, in the order the users were created, without reading any user.
+     * @return the usernames by user ID
+     */
+    Map<Integer, String> getUsernames();
+
+    /**
+     * Gets a user only if they are already in memory, such as a user who changed since they were last stored.
+     * @param userID the user's ID
+     * @return the user, or null if they have not been read
+     */
+    User getLoadedUser(int userID);
+
+    /**
+     * Reads stored users without keeping them, such as a page of a table that shows a few users at a time. Unlike
+     * {@link #getUser(int)}, the users read are not kept, so paging through every user never holds more than a page of
+     * them in memory. Only the stored data is read, so this can be called from a background thread.
+     * @param userIDs the IDs of the users on the page
+     * @return the stored users in the same order, with null for any user that isn't stored yet
+     * @throws IOException if the stored data cannot be read
+     */
+    List<User> readUserPage(List<Integer> userIDs) throws IOException;
+
+    /**
+     * Gets the ID to give the next user created, one more than the highest ID in use.
+     * @return the next user ID
+     */
+    int nextUserId();
+
+    /**
+     * Adds a new user. It is stored on the next save.
+     * @param user the user
+     */
+    void addUser(User user);
+
+    /**
+     * Adds a new game save. It is stored on the next save.
+     * @param save the game save
+     */
+    void addGameSave(GameSave save);
+}
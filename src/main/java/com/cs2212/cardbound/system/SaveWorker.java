@@ -0,0 +1,322 @@
+package com.cs2212.cardbound.system;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A background thread that writes save files to disk so that saving never blocks the JavaFX application thread.
+ * <br><br>
+ * {@link MainMenu#saveGame()} serializes the save data and hands the finished files to this worker. Work is done in
+ * the order it was queued. If a save file is queued again before it has been written, only its newest contents are
+ * kept, so a burst of saves becomes a single write. Save files are written to their inactive {@link SlotFile} slot, so
+ * a crash mid-write leaves the old save in place, never a partial file. Other files are written to a temporary file in
+ * the same directory and then moved over the old file in one step. Everything is forced to the disk before the worker
+ * moves on.
+ * @version 1.0
+ */
+public final class SaveWorker {
+
+    /**
+     * A piece of file work that runs on the worker thread
+     */
+    @FunctionalInterface
+    public interface Task {
+        /**
+         * Does the work
+         * @throws IOException if a file cannot be read or written
+         */
+        void run() throws IOException;
+    }
+
+    /**
+     * A queued write of a whole save file
+     */
+    private static final class Write {
+        private final SlotFile file;
+        private String contents;
+
+        private Write(SlotFile file, String contents) {
+            this.file = file;
+            this.contents = contents;
+        }
+    }
+
+    /**
+     * Queued lines to add to the end of a file
+     */
+    private static final class Append {
+        private final Path path;
+        private final StringBuilder lines;
+        private final Consumer<String> unwritten;
+
+        private Append(Path path, String lines, Consumer<String> unwritten) {
+            this.path = path;
+            this.lines = new StringBuilder(lines);
+            this.unwritten = unwritten;
+        }
+    }
+
+    /**
+     * Guards the queue and the state of the worker thread
+     */
+    private static final Object lock = new Object();
+    /**
+     * The work waiting to be done, in the order it was queued. Holds {@link Write}s, {@link Append}s and {@link Task}s.
+     */
+    private static final Deque<Object> queue = new ArrayDeque<>();
+    /**
+     * Whether the worker thread is currently doing work
+     */
+    private static boolean working = false;
+    /**
+     * The worker thread, started the first time work is queued
+     */
+    private static Thread worker;
+
+    private SaveWorker() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Queues save files to be written in the background, replacing any queued contents for the same files that have not
+     * been written yet.
+     * @param files the contents of each save file to write
+     */
+    static void submit(Map<SlotFile, String> files) {
+        synchronized (lock) {
+            for (Map.Entry<SlotFile, String> file : files.entrySet()) {
+                if (!replacePendingWrite(file.getKey(), file.getValue()))
+                    queue.addLast(new Write(file.getKey(), file.getValue()));
+            }
+            start();
+        }
+    }
+
+    /**
+     * Queues lines to be added to the end of a file in the background.
+     * @param path the file to add to
+     * @param lines the lines to add, each ending with a line break
+     */
+    public static void append(Path path, String lines) {
+        append(path, lines, null);
+    }
+
+    /**
+     * Queues lines to be added to the end of a file in the background, and hands them back if they can't be written.
+     * @param path the file to add to
+     * @param lines the lines to add, each ending with a line break
+     * @param unwritten given the lines if writing them fails, on the worker thread, or null to only log the failure
+     */
+    static void append(Path path, String lines, Consumer<String> unwritten) {
+        synchronized (lock) {
+            if (queue.peekLast() instanceof Append last && last.path.equals(path) && last.unwritten == unwritten)
+                last.lines.append(lines);
+            else
+                queue.addLast(new Append(path, lines, unwritten));
+            start();
+        }
+    }
+
+    /**
+     * Queues a task to run on the worker thread after all the work queued before it. A task that is already waiting at
+     * the end of the queue is not queued twice.
+     * @param task the task to run
+     */
+    public static void execute(Task task) {
+        synchronized (lock) {
+            if (queue.peekLast() != task)
+                queue.addLast(task);
+            start();
+        }
+    }
+
+    /**
+     * Replaces the contents of a queued write of a file, as long as no task is queued after it that could read the file
+     * @param file the save file
+     * @param contents the new contents
+     * @return true if a queued write was replaced, false if the write has to be queued
+     */
+    private static boolean replacePendingWrite(SlotFile file, String contents) {
+        Iterator<Object> pending = queue.descendingIterator();
+        while (pending.hasNext()) {
+            Object work = pending.next();
+            if (work instanceof Task)
+                return false;
+            if (work instanceof Write write && write.file == file) {
+                write.contents = contents;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Starts the worker thread if it is not running yet and wakes it up. Must be called while holding the lock.
+     */
+    private static void start() {
+        if (worker == null) {
+            worker = new Thread(SaveWorker::run, "save-worker");
+            worker.setDaemon(true);
+            worker.start();
+        }
+        lock.notifyAll();
+    }
+
+    /**
+     * Blocks until all queued work has been done. Called before the application exits.
+     */
+    public static void flush() {
+        synchronized (lock) {
+            boolean interrupted = false;
+            while (working || !queue.isEmpty()) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The worker loop, which does the queued work one piece at a time
+     */
+    private static void run() {
+        while (true) {
+            Object work;
+            synchronized (lock) {
+                while (queue.isEmpty()) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                work = queue.pollFirst();
+                working = true;
+            }
+
+            try {
+                if (work instanceof Write write)
+                    write.file.write(write.contents);
+                else if (work instanceof Append append)
+                    appendOrHandBack(append);
+                else
+                    ((Task) work).run();
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace(); // catch any exceptions gracefully and log them to output console
+            } finally {
+                synchronized (lock) {
+                    working = false;
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds queued lines to the end of their file, handing them back to whoever queued them if that fails
+     * @param append the queued lines
+     * @throws IOException if the lines cannot be written
+     */
+    private static void appendOrHandBack(Append append) throws IOException {
+        String lines = append.lines.toString();
+        try {
+            appendDurably(append.path, lines);
+        } catch (IOException e) {
+            if (append.unwritten != null)
+                append.unwritten.accept(lines);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes a file by writing a temporary file next to it, forcing it to the disk and moving it into place.
+     * @param target the file to write
+     * @param contents the new contents of the file
+     * @throws IOException if the file cannot be written
+     */
+    static void writeAtomically(Path target, String contents) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            ByteBuffer bytes = ByteBuffer.wrap(contents.getBytes(StandardCharsets.UTF_8));
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (bytes.hasRemaining())
+                    channel.write(bytes);
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Adds lines to the end of a file and forces them to the disk.
+     * @param target the file to add to
+     * @param lines the lines to add
+     * @throws IOException if the file cannot be written
+     */
+    static void appendDurably(Path target, String lines) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(lines.getBytes(StandardCharsets.UTF_8));
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (bytes.hasRemaining())
+                channel.write(bytes);
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Cuts a line that a crash left half written off the end of a file of lines, so that the next line added starts on
+     * a line of its own instead of being joined to it. Only called while loading, once nothing is queued.
+     * @param target the file
+     * @return true if a half written line was cut off, false if the file ended with a whole line
+     * @throws IOException if the file cannot be read or written
+     */
+    static boolean cutTornLine(Path target) throws IOException {
+        if (!Files.isRegularFile(target))
+            return false;
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Search back from the end for the last line break
+            long end = channel.size();
+            ByteBuffer chunk = ByteBuffer.allocate(4096);
+            while (end > 0) {
+                long start = Math.max(0, end - chunk.capacity());
+                chunk.clear().limit((int) (end - start));
+                while (chunk.hasRemaining() && channel.read(chunk, start + chunk.position()) > 0);
+                for (int i = chunk.position() - 1; i >= 0; i--) {
+                    if (chunk.get(i) == '\n') {
+                        end = start + i + 1;
+                        if (end == channel.size())
+                            return false;
+                        channel.truncate(end);
+                        return true;
+                    }
+                }
+                end = start;
+            }
+            boolean torn = channel.size() > 0;
+            channel.truncate(0);
+            return torn;
+        }
+    }
+}
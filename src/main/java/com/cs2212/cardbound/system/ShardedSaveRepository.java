@@ -0,0 +1,381 @@
+package com.cs2212.cardbound.system;
+
+import com.cs2212.cardbound.gameplay.GameSave;
+import com.cs2212.cardbound.gameplay.User;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * A save repository that keeps each user in a file of their own, for large classroom installs.
+ * <br><br>
+ * Each user's profile and game save are kept together in one small JSON file under SaveShards, in a directory picked by
+ * a hash of the user ID, such as SaveShards/7/c/42.json. Two levels of 16 directories keep any one directory from
+ * holding more than a few hundred files, even with tens of thousands of users. Saving rewrites only the files of users
+ * that changed, so it costs the same however many users there are, and reading one user never waits on another user's
+ * file being written.
+ * <br><br>
+ * A small global index, SaveShards/index.log, lists every user ID and username in the order the users were created. It
+ * is only ever added to, one line per new user, so loading reads it once to know every username without opening any
+ * user's file. A user's index line is forced to the disk before their file is written, so the index can only miss a
+ * user if it was damaged. Only then, when a line was cut short by a crash, a line is damaged or listed twice, or the
+ * file of the next new user already exists, are the directories of user files listed, and any user file the index is
+ * missing is read and added back to it, so a new user is never given the ID of a user whose index line was lost. If
+ * there is no index yet, the JSON save files are copied in.
+ * @version 1.0
+ */
+final class ShardedSaveRepository extends AbstractSaveRepository {
+
+    /**
+     * The name of a user file's user
+     */
+    private static final String USER = "user";
+    /**
+     * The name of a user file's game save
+     */
+    private static final String GAME_SAVE = "gameSave";
+    /**
+     * The name of a user file, holding the user's ID
+     */
+    private static final Pattern USER_FILE_NAME = Pattern.compile("(\\d{1,9})\\.json");
+
+    /**
+     * The Gson instance used to read and write records
+     */
+    private final Gson gson;
+    /**
+     * The directory holding the JSON save files the shards are first filled from
+     */
+    private final Path directory;
+    /**
+     * The directory holding every user file
+     */
+    private final Path shardDirectory;
+    /**
+     * The index of every user ID and username
+     */
+    private final Path indexFile;
+    /**
+     * Every user ID in the index, in the order they were added
+     */
+    private final Set<Integer> indexedIds = new LinkedHashSet<>();
+    /**
+     * Index lines that could not be added to the index, which are added again with the next save
+     */
+    private final Queue<String> unwrittenIndexLines = new ConcurrentLinkedQueue<>();
+    /**
+     * Hands index lines that could not be written back to be added again. Kept in a field so that appends queued one
+     * after another are recognised as going to the same place and written together.
+     */
+    private final Consumer<String> handBack = unwrittenIndexLines::add;
+
+    /**
+     * Creates a repository kept in a directory.
+     * @param gson the Gson instance used to read and write records
+     * @param directory the directory holding the SaveShards directory
+     */
+    ShardedSaveRepository(Gson gson, Path directory) {
+        this.gson = gson;
+        this.directory = directory;
+        this.shardDirectory = directory.resolve("SaveShards");
+        this.indexFile = shardDirectory.resolve("index.log");
+    }
+
+    @Override
+    public void load() throws IOException {
+        // Make sure any user files still being written have reached the disk before reading them back
+        SaveWorker.flush();
+        reset();
+        indexedIds.clear();
+        unwrittenIndexLines.clear();
+
+        if (!Files.isRegularFile(indexFile))
+            importJsonSaveFiles();
+        if (!Files.isRegularFile(indexFile)) {
+            // A new install, so make the directory the first user's index line is added to
+            Files.createDirectories(shardDirectory);
+            return;
+        }
+
+        // Cut off a line left unfinished by a crash, so the next line added starts on a line of its own
+        boolean damaged = SaveWorker.cutTornLine(indexFile);
+        int lines = 0;
+        try (BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank())
+                    continue;
+                lines++;
+                int space = line.indexOf(' ');
+                try {
+                    int userID = Integer.parseInt(space < 0 ? line : line.substring(0, space));
+                    JsonElement username = space < 0 ? null : JsonParser.parseString(line.substring(space + 1));
+                    indexedIds.add(userID);
+                    reserveUserId(userID);
+                    if (username != null && !username.isJsonNull())
+                        indexUser(username.getAsString(), userID);
+                } catch (NumberFormatException | JsonParseException | IllegalStateException e) {
+                    e.printStackTrace(); // catch any exceptions gracefully and log them to output console
+                    damaged = true;
+                }
+            }
+        }
+
+        // An index that is whole lists every user file, so the directories only have to be listed when it isn't
+        if (damaged || lines != indexedIds.size() || Files.exists(shardOf(nextUserId())))
+            indexUnlistedFiles();
+    }
+
+    /**
+     * Adds every user file that the index is missing back to it, such as one whose index line was damaged.
+     * @throws IOException if the user file directories cannot be listed
+     */
+    private void indexUnlistedFiles() throws IOException {
+        List<Integer> unlistedIds = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(shardDirectory, 3)) {
+            files.forEach(file -> {
+                Matcher name = USER_FILE_NAME.matcher(file.getFileName().toString());
+                if (name.matches() && !indexedIds.contains(Integer.parseInt(name.group(1))))
+                    unlistedIds.add(Integer.parseInt(name.group(1)));
+            });
+        }
+        if (unlistedIds.isEmpty())
+            return;
+
+        // Keep the index in the order the users were created
+        Collections.sort(unlistedIds);
+        StringBuilder indexLines = new StringBuilder();
+        for (int userID : unlistedIds) {
+            User user = null;
+            try {
+                user = readRecord(userID, USER, User.class);
+            } catch (IOException e) {
+                e.printStackTrace(); // catch any exceptions gracefully and log them to output console
+            }
+            indexedIds.add(userID);
+            reserveUserId(userID);
+            if (user != null && user.getUsername() != null)
+                indexUser(user.getUsername(), userID);
+            indexLines.append(indexLine(userID, user));
+        }
+        SaveWorker.append(indexFile, indexLines.toString());
+    }
+
+    @Override
+    public void save() {
+        // Only records that have been read can have changed, and each changed user's file holds both of their records
+        Set<Integer> changedIds = new LinkedHashSet<>();
+        for (User user : getLoadedUsers()) {
+            if (user.isDirty())
+                changedIds.add(user.getUserID());
+        }
+        for (GameSave save : getLoadedGameSaves()) {
+            if (save.isDirty())
+                changedIds.add(save.getUserId());
+        }
+        if (changedIds.isEmpty() && unwrittenIndexLines.isEmpty())
+            return;
+
+        // Lines that failed to be added start on a line of their own, in case the failed write left part of a line
+        StringBuilder indexLines = new StringBuilder();
+        for (String failed = unwrittenIndexLines.poll(); failed != null; failed = unwrittenIndexLines.poll())
+            indexLines.append(indexLines.isEmpty() ? "\n" : "").append(failed);
+        Map<Path, String> files = new LinkedHashMap<>();
+        for (int userID : changedIds) {
+            User user = getUser(userID);
+            GameSave save = getGameSave(userID);
+            files.put(shardOf(userID), toJson(user, save));
+            if (user != null)
+                user.markClean();
+            if (save != null)
+                save.markClean();
+            if (indexedIds.add(userID))
+                indexLines.append(indexLine(userID, user));
+        }
+
+        // The index line goes first, so a user file is never written without the index knowing about it
+        if (indexLines.length() > 0)
+            SaveWorker.append(indexFile, indexLines.toString(), handBack);
+        SaveWorker.execute(() -> writeFiles(files));
+    }
+
+    /**
+     * Copies the users and game saves from the JSON save files into new user files, if there are any.
+     * @throws IOException if the JSON save files cannot be read or the user files cannot be written
+     */
+    private void importJsonSaveFiles() throws IOException {
+        JsonSaveRepository json = new JsonSaveRepository(gson, directory);
+        json.load();
+        List<User> users = json.getUsers();
+        List<GameSave> saves = json.getGameSaves();
+        if (users.isEmpty() && saves.isEmpty())
+            return;
+
+        Map<Integer, User> usersById = new LinkedHashMap<>();
+        for (User user : users)
+            usersById.put(user.getUserID(), user);
+        Map<Integer, GameSave> savesById = new LinkedHashMap<>();
+        for (GameSave save : saves)
+            savesById.put(save.getUserId(), save);
+        Set<Integer> userIDs = new LinkedHashSet<>(usersById.keySet());
+        userIDs.addAll(savesById.keySet());
+
+        Map<Path, String> files = new LinkedHashMap<>();
+        StringBuilder indexLines = new StringBuilder();
+        for (int userID : userIDs) {
+            files.put(shardOf(userID), toJson(usersById.get(userID), savesById.get(userID)));
+            indexLines.append(indexLine(userID, usersById.get(userID)));
+        }
+
+        // The index is written last, so an import cut short by a crash is simply done again
+        writeFiles(files);
+        Files.createDirectories(shardDirectory);
+        SaveWorker.writeAtomically(indexFile, indexLines.toString());
+    }
+
+    /**
+     * Writes user files. Runs on the {@link SaveWorker} thread, or while importing.
+     * @param files the contents of each user file, by path
+     * @throws IOException if a file cannot be written
+     */
+    private static void writeFiles(Map<Path, String> files) throws IOException {
+        for (Map.Entry<Path, String> file : files.entrySet()) {
+            Files.createDirectories(file.getKey().getParent());
+            SaveWorker.writeAtomically(file.getKey(), file.getValue());
+        }
+    }
+
+    /**
+     * Gets the file holding a user's records. The directory is picked by a hash of the user ID, so that users created
+     * one after another are spread evenly over the directories.
+     * @param userID the user's ID
+     * @return the user file
+     */
+    private Path shardOf(int userID) {
+        // The finalizer of MurmurHash3, which mixes every bit of the ID into the top bits used for the directories
+        int hash = userID;
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return shardDirectory.resolve(Integer.toHexString(hash >>> 28))
+                .resolve(Integer.toHexString((hash >>> 24) & 0xF))
+                .resolve(userID + ".json");
+    }
+
+    /**
+     * Converts a user's records to the contents of their file
+     * @param user the user, or null if there is none
+     * @param save the user's game save, or null if there is none
+     * @return the JSON of the user file
+     */
+    private String toJson(User user, GameSave save) {
+        JsonObject file = new JsonObject();
+        if (user != null)
+            file.add(USER, gson.toJsonTree(user));
+        if (save != null)
+            file.add(GAME_SAVE, gson.toJsonTree(save));
+        return gson.toJson(file);
+    }
+
+    /**
+     * Converts a user to a line of the index
+     * @param userID the user's ID
+     * @param user the user, or null if the ID only has a game save
+     * @return the line, ending with a line break
+     */
+    private String indexLine(int userID, User user) {
+        return userID + " " + gson.toJson(user != null ? user.getUsername() : null) + "\n";
+    }
+
+    /**
+     * Reads one record from a user's file.
+     * @param userID the user's ID
+     * @param name the name of the record in the file
+     * @param type the type of record
+     * @param <T> the type of record
+     * @return the record, or null if the user has no file or no record of that kind
+     * @throws IOException if the file cannot be read
+     */
+    private <T> T readRecord(int userID, String name, Class<T> type) throws IOException {
+        Path file = shardOf(userID);
+        if (!Files.isRegularFile(file))
+            return null;
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            JsonElement record = JsonParser.parseReader(reader).getAsJsonObject().get(name);
+            return record != null && !record.isJsonNull() ? gson.fromJson(record, type) : null;
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new IOException(file + " is damaged", e);
+        }
+    }
+
+    /**
+     * Reads one kind of record from every user's file.
+     * @param name the name of the record in each file
+     * @param type the type of record
+     * @param <T> the type of record
+     * @return the records, in the order the users were created
+     * @throws IOException if a file cannot be read
+     */
+    private <T> List<T> readRecords(String name, Class<T> type) throws IOException {
+        List<T> records = new ArrayList<>(indexedIds.size());
+        for (int userID : indexedIds) {
+            T record = readRecord(userID, name, type);
+            if (record != null)
+                records.add(record);
+        }
+        return records;
+    }
+
+    @Override
+    protected User readUser(int userID) throws IOException {
+        return indexedIds.contains(userID) ? readRecord(userID, USER, User.class) : null;
+    }
+
+    @Override
+    protected GameSave readGameSave(int userID) throws IOException {
+        return indexedIds.contains(userID) ? readRecord(userID, GAME_SAVE, GameSave.class) : null;
+    }
+
+    @Override
+    public List<User> readUserPage(List<Integer> userIDs) throws IOException {
+        // The index is only changed on the JavaFX thread, so go straight to each user's file, which is only ever replaced whole
+        List<User> page = new ArrayList<>(userIDs.size());
+        for (int userID : userIDs)
+            page.add(readRecord(userID, USER, User.class));
+        return page;
+    }
+
+    @Override
+    protected List<User> readUsers() throws IOException {
+        return readRecords(USER, User.class);
+    }
+
+    @Override
+    protected List<GameSave> readGameSaves() throws IOException {
+        return readRecords(GAME_SAVE, GameSave.class);
+    }
+}
@@ -0,0 +1,328 @@
+package com.cs2212.cardbound.system;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * A save file kept in two slots, so that a crash while saving can never leave it half written.
+ * <br><br>
+ * A save file such as SaveData.json is kept as SaveData.json.a and SaveData.json.b, plus a tiny header file,
+ * SaveData.json.head, that names the slot in use. Each save writes the slot that is not in use in one sequential write,
+ * ending with a footer that holds the length of the contents, a generation number that goes up with every save, and a
+ * CRC32C of the contents. The slot is forced to the disk, and only then is the header flipped to it and forced too. A
+ * crash at any point leaves the previous slot and the header pointing at it untouched.
+ * <br><br>
+ * Reading checks the slot the header names. Only if that slot is missing or damaged is the other slot checked, and the
+ * newest valid slot is used. If neither slot exists yet, the original single file is read instead, so saves from
+ * before slots were added still load.
+ * @version 1.0
+ */
+final class SlotFile {
+
+    /**
+     * Identifies a slot footer and a header, "CBSL"
+     */
+    private static final int MAGIC = 0x4342534C;
+    /**
+     * The size of the footer at the end of each slot in bytes: length, generation, CRC32C and magic
+     */
+    private static final int FOOTER_SIZE = 24;
+    /**
+     * The size of the header file in bytes: magic, slot and generation
+     */
+    private static final int HEADER_SIZE = 16;
+    /**
+     * The slot number meaning no slot is in use
+     */
+    private static final int NO_SLOT = -1;
+
+    /**
+     * The original single save file
+     */
+    private final Path legacyFile;
+    /**
+     * The two slot files
+     */
+    private final Path[] slots;
+    /**
+     * The header file naming the slot in use
+     */
+    private final Path headerFile;
+    /**
+     * Whether the slot in use has been worked out yet
+     */
+    private boolean resolved;
+    /**
+     * The slot in use, or {@link #NO_SLOT}
+     */
+    private int activeSlot = NO_SLOT;
+    /**
+     * The generation of the slot in use, or 0 if no slot is in use
+     */
+    private long generation;
+    /**
+     * The length of the contents of the slot in use
+     */
+    private long length;
+
+    /**
+     * Creates the slots for a save file.
+     * @param legacyFile the original single save file, which the slot and header files are named after
+     */
+    SlotFile(Path legacyFile) {
+        this.legacyFile = legacyFile;
+        this.slots = new Path[] {
+                legacyFile.resolveSibling(legacyFile.getFileName() + ".a"),
+                legacyFile.resolveSibling(legacyFile.getFileName() + ".b")
+        };
+        this.headerFile = legacyFile.resolveSibling(legacyFile.getFileName() + ".head");
+    }
+
+    /**
+     * Gets the original single save file, which names this save file
+     * @return the original save file
+     */
+    Path getPath() {
+        return legacyFile;
+    }
+
+    /**
+     * Checks whether there is anything to read, either a valid slot or the original file.
+     * @return true if the save file exists, false otherwise
+     * @throws IOException if the slots cannot be read
+     */
+    synchronized boolean exists() throws IOException {
+        resolve();
+        return activeSlot != NO_SLOT || Files.isRegularFile(legacyFile);
+    }
+
+    /**
+     * Opens the contents of the newest valid slot, or of the original file if there are no slots yet.
+     * @return a reader over the contents, which the caller must close
+     * @throws IOException if the save file does not exist or cannot be read
+     */
+    synchronized Reader openReader() throws IOException {
+        return new BufferedReader(new InputStreamReader(openStream(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Opens the bytes of the newest valid slot, or of the original file if there are no slots yet.
+     * @return a stream over the contents, which the caller must close
+     * @throws IOException if the save file does not exist or cannot be read
+     */
+    synchronized InputStream openStream() throws IOException {
+        resolve();
+        if (activeSlot == NO_SLOT)
+            return Files.newInputStream(legacyFile);
+        InputStream in = Channels.newInputStream(FileChannel.open(slots[activeSlot], StandardOpenOption.READ));
+        // Stop at the footer, so the stream only gives the contents
+        return new BoundedInputStream(in, length);
+    }
+
+    /**
+     * Gets the generation of the contents, which goes up every time the file is written.
+     * @return the generation, or 0 if no slot has been written yet
+     * @throws IOException if the slots cannot be read
+     */
+    synchronized long getGeneration() throws IOException {
+        resolve();
+        return generation;
+    }
+
+    /**
+     * Reads parts of the contents, as long as the file hasn't been written since a generation. The check and the reads
+     * happen together, so a write can't land in between.
+     * @param expectedGeneration the generation the positions were found in
+     * @param positions the position of each part in the contents
+     * @param lengths the length of each part in bytes
+     * @return the bytes of each part, or null if the file has been written since that generation
+     * @throws IOException if the file cannot be read or is shorter than expected
+     */
+    synchronized byte[][] read(long expectedGeneration, long[] positions, int[] lengths) throws IOException {
+        resolve();
+        if (expectedGeneration != generation)
+            return null;
+        Path file = activeSlot == NO_SLOT ? legacyFile : slots[activeSlot];
+        byte[][] parts = new byte[positions.length][];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (int i = 0; i < positions.length; i++) {
+                ByteBuffer part = ByteBuffer.allocate(lengths[i]);
+                while (part.hasRemaining()) {
+                    if (channel.read(part, positions[i] + part.position()) < 0)
+                        throw new IOException(file + " is shorter than expected");
+                }
+                parts[i] = part.array();
+            }
+        }
+        return parts;
+    }
+
+    /**
+     * Writes new contents to the slot not in use and flips the header to it. Called on the {@link SaveWorker} thread.
+     * @param contents the new contents
+     * @throws IOException if the slot or the header cannot be written
+     */
+    synchronized void write(String contents) throws IOException {
+        resolve();
+        int slot = activeSlot == NO_SLOT ? 0 : 1 - activeSlot;
+        long nextGeneration = generation + 1;
+
+        // Write the contents and the footer in one sequential write, then force them to the disk
+        byte[] bytes = contents.getBytes(StandardCharsets.UTF_8);
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        ByteBuffer buffer = ByteBuffer.allocate(bytes.length + FOOTER_SIZE);
+        buffer.put(bytes).putLong(bytes.length).putLong(nextGeneration).putInt((int) crc.getValue()).putInt(MAGIC).flip();
+        try (FileChannel channel = FileChannel.open(slots[slot], StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            channel.force(true);
+        }
+
+        // Only once the slot is safely on the disk, point the header at it
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(slot).putLong(nextGeneration).flip();
+        try (FileChannel channel = FileChannel.open(headerFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining())
+                channel.write(header, header.position());
+            channel.force(true);
+        }
+
+        activeSlot = slot;
+        generation = nextGeneration;
+        length = bytes.length;
+        resolved = true;
+    }
+
+    /**
+     * Works out which slot is in use, the first time it is needed.
+     * @throws IOException if the slots cannot be read
+     */
+    private void resolve() throws IOException {
+        if (resolved)
+            return;
+
+        // The header normally names a valid slot, and then nothing else has to be checked
+        int headerSlot = NO_SLOT;
+        long headerGeneration = 0;
+        if (Files.isRegularFile(headerFile) && Files.size(headerFile) >= HEADER_SIZE) {
+            ByteBuffer header = ByteBuffer.wrap(Files.readAllBytes(headerFile));
+            if (header.getInt(0) == MAGIC && (header.getInt(4) == 0 || header.getInt(4) == 1)) {
+                headerSlot = header.getInt(4);
+                headerGeneration = header.getLong(8);
+            }
+        }
+        if (headerSlot != NO_SLOT) {
+            long[] footer = check(slots[headerSlot]);
+            if (footer != null && footer[1] == headerGeneration) {
+                use(headerSlot, footer);
+                return;
+            }
+        }
+
+        // The header is missing or stale, so use whichever valid slot is newest
+        long[] first = check(slots[0]);
+        long[] second = check(slots[1]);
+        if (first != null && (second == null || first[1] >= second[1]))
+            use(0, first);
+        else if (second != null)
+            use(1, second);
+        resolved = true;
+    }
+
+    /**
+     * Makes a slot the one in use
+     * @param slot the slot
+     * @param footer the slot's length and generation
+     */
+    private void use(int slot, long[] footer) {
+        activeSlot = slot;
+        length = footer[0];
+        generation = footer[1];
+        resolved = true;
+    }
+
+    /**
+     * Checks that a slot is complete and undamaged.
+     * @param slot the slot file
+     * @return the length and generation from the slot's footer, or null if the slot is missing or damaged
+     * @throws IOException if the slot cannot be read
+     */
+    private static long[] check(Path slot) throws IOException {
+        if (!Files.isRegularFile(slot))
+            return null;
+        try (FileChannel channel = FileChannel.open(slot, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < FOOTER_SIZE)
+                return null;
+            ByteBuffer footer = ByteBuffer.allocate(FOOTER_SIZE);
+            while (footer.hasRemaining() && channel.read(footer, size - FOOTER_SIZE + footer.position()) > 0);
+            long contentLength = footer.getLong(0);
+            if (footer.getInt(20) != MAGIC || contentLength != size - FOOTER_SIZE)
+                return null;
+
+            CRC32C crc = new CRC32C();
+            ByteBuffer chunk = ByteBuffer.allocate(64 * 1024);
+            long position = 0;
+            while (position < contentLength) {
+                chunk.clear().limit((int) Math.min(chunk.capacity(), contentLength - position));
+                int read = channel.read(chunk, position);
+                if (read <= 0)
+                    return null;
+                crc.update(chunk.flip());
+                position += read;
+            }
+            if ((int) crc.getValue() != footer.getInt(16))
+                return null;
+            return new long[] {contentLength, footer.getLong(8)};
+        }
+    }
+
+    /**
+     * An input stream that ends after a set number of bytes
+     */
+    private static final class BoundedInputStream extends InputStream {
+        private final InputStream in;
+        private long remaining;
+
+        private BoundedInputStream(InputStream in, long limit) {
+            this.in = in;
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0)
+                return -1;
+            int b = in.read();
+            if (b >= 0)
+                remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int count) throws IOException {
+            if (remaining <= 0)
+                return -1;
+            int read = in.read(buffer, offset, (int) Math.min(count, remaining));
+            if (read > 0)
+                remaining -= read;
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
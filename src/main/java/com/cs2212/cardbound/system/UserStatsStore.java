@@ -0,0 +1,377 @@
+package com.cs2212.cardbound.system;
+
+import com.cs2212.cardbound.gameplay.User;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A binary copy of every user's statistics and settings, kept in a memory-mapped file.
+ * <br><br>
+ * Each user has one fixed-width record, found at the position of their user ID, so a change is written in place
+ * without converting anything to text. Usernames have different lengths, so they are kept in a second mapped file (the
+ * string heap) and each record holds the position and length of its username there. Reading the records back is as
+ * fast as reading memory, which lets the leaderboard's {@link RankIndex} be built without touching any User objects.
+ * <br><br>
+ * The JSON save files are still the real save data. When the game loads, only users changed since the store was last
+ * written and users it has no record of are copied into it, and it is updated each time the game saves. It is only used when the game is started with {@code -Dcardbound.statsStore=true}.
+ * @version 1.0
+ */
+final class UserStatsStore implements Closeable {
+
+    /**
+     * Identifies a stats file, "CBUS"
+     */
+    private static final int MAGIC = 0x43425553;
+    /**
+     * The layout version of the stats file
+     */
+    private static final int VERSION = 1;
+    /**
+     * The size of the header at the start of the stats file in bytes: magic, version, record count and heap end
+     */
+    private static final int HEADER_SIZE = 16;
+    /**
+     * The size of each record in bytes
+     */
+    private static final int RECORD_SIZE = 40;
+    /**
+     * The number of records room is made for when the stats file is created
+     */
+    private static final int INITIAL_CAPACITY = 64;
+    /**
+     * The number of bytes room is made for when the string heap is created
+     */
+    private static final int INITIAL_HEAP_CAPACITY = 1024;
+    /**
+     * The number of users read at a time when adding users who have no record
+     */
+    private static final int SYNC_PAGE_SIZE = 1000;
+
+    // Positions of the header values
+    private static final int COUNT_OFFSET = 8;
+    private static final int HEAP_END_OFFSET = 12;
+
+    // Positions of the values within a record
+    private static final int USER_ID = 0;
+    private static final int NAME_OFFSET = 4;
+    private static final int NAME_LENGTH = 8;
+    private static final int LIFETIME_GAMES = 12;
+    private static final int BEST_SCORE = 16;
+    private static final int BEST_TIME = 20;
+    private static final int MOST_LEVELS_CLEARED = 24;
+    private static final int TOTAL_PLAYTIME = 28;
+    private static final int MASTER_VOLUME = 32;
+    private static final int MUSIC_VOLUME = 33;
+    private static final int SFX_VOLUME = 34;
+    private static final int FLAGS = 35;
+
+    // Bits of the flags byte
+    private static final int FLAG_PRESENT = 1;
+    private static final int FLAG_LEVEL_TIMER_DISABLED = 1 << 1;
+    private static final int FLAG_RUN_TIMER_DISABLED = 1 << 2;
+    private static final int FLAG_UNLIMITED_HEALTH = 1 << 3;
+
+    /**
+     * The open stats file
+     */
+    private final FileChannel recordChannel;
+    /**
+     * The open string heap
+     */
+    private final FileChannel heapChannel;
+    /**
+     * The mapped stats file, replaced with a larger mapping when it runs out of room
+     */
+    private MappedByteBuffer records;
+    /**
+     * The mapped string heap, replaced with a larger mapping when it runs out of room
+     */
+    private MappedByteBuffer heap;
+
+    /**
+     * Maps the two files of a store.
+     * @param recordChannel the open stats file
+     * @param heapChannel the open string heap
+     * @throws IOException if the files cannot be mapped
+     */
+    private UserStatsStore(FileChannel recordChannel, FileChannel heapChannel) throws IOException {
+        this.recordChannel = recordChannel;
+        this.heapChannel = heapChannel;
+        records = recordChannel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(recordChannel.size(), HEADER_SIZE + (long) INITIAL_CAPACITY * RECORD_SIZE));
+        heap = heapChannel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(heapChannel.size(), INITIAL_HEAP_CAPACITY));
+
+        // Start over with an empty store if the file is new or was written by something else
+        if (records.getInt(0) != MAGIC || records.getInt(4) != VERSION) {
+            for (int i = 0; i < records.capacity(); i++)
+                records.put(i, (byte) 0);
+            records.putInt(0, MAGIC);
+            records.putInt(4, VERSION);
+        }
+    }
+
+    /**
+     * Opens a store, creating its files if they don't exist.
+     * @param recordFile the stats file
+     * @param heapFile the string heap
+     * @return the open store
+     * @throws IOException if the files cannot be opened
+     */
+    static UserStatsStore open(Path recordFile, Path heapFile) throws IOException {
+        FileChannel recordChannel = FileChannel.open(recordFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            FileChannel heapChannel = FileChannel.open(heapFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                return new UserStatsStore(recordChannel, heapChannel);
+            } catch (IOException e) {
+                heapChannel.close();
+                throw e;
+            }
+        } catch (IOException e) {
+            recordChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the number of record slots in use, which is one more than the highest user ID stored
+     * @return the number of record slots
+     */
+    int size() {
+        return records.getInt(COUNT_OFFSET);
+    }
+
+    /**
+     * Brings the store up to date with a repository that was just loaded. Records already in the store are trusted, so
+     * only the users the repository holds in memory, such as users replayed from the save journal, are written again.
+     * Users with no record yet, such as every user the first time the store is turned on, are read a page at a time
+     * and added.
+     * @param repository the loaded repository
+     * @throws IOException if the users cannot be read or the files cannot be grown
+     */
+    void sync(SaveRepository repository) throws IOException {
+        List<Integer> missing = new ArrayList<>();
+        for (int userID : repository.getUsernames().keySet()) {
+            User loaded = repository.getLoadedUser(userID);
+            if (loaded != null)
+                sync(loaded);
+            else if (!contains(userID))
+                missing.add(userID);
+        }
+
+        for (int from = 0; from < missing.size(); from += SYNC_PAGE_SIZE) {
+            for (User user : repository.readUserPage(missing.subList(from, Math.min(from + SYNC_PAGE_SIZE, missing.size())))) {
+                if (user != null)
+                    sync(user);
+            }
+        }
+    }
+
+    /**
+     * Writes a user's record, and points it at their username again if it changed
+     * @param user the user
+     * @throws IOException if the files cannot be grown
+     */
+    private void sync(User user) throws IOException {
+        put(user);
+        // The username only changes if the save files were swapped, but a record needs to be looked up by name
+        if (!user.getUsername().equals(getUsername(user.getUserID())))
+            writeUsername(recordPosition(user.getUserID()), user.getUsername());
+    }
+
+    /**
+     * Writes a user's statistics and settings into their record, adding the record if it is new.
+     * @param user the user
+     * @throws IOException if the files cannot be grown
+     */
+    void put(User user) throws IOException {
+        int id = user.getUserID();
+        if (id < 0)
+            throw new IllegalArgumentException("User ID must not be negative: " + id);
+
+        ensureRecordCapacity(id + 1);
+        int position = recordPosition(id);
+        boolean isNew = (records.get(position + FLAGS) & FLAG_PRESENT) == 0;
+
+        records.putInt(position + USER_ID, id);
+        records.putInt(position + LIFETIME_GAMES, user.getLifetimeGames());
+        records.putInt(position + BEST_SCORE, user.getBestScore());
+        records.putInt(position + BEST_TIME, user.getBestTime());
+        records.putInt(position + MOST_LEVELS_CLEARED, user.getMostLevelsCleared());
+        records.putInt(position + TOTAL_PLAYTIME, user.getTotalPlaytime());
+        records.put(position + MASTER_VOLUME, (byte) user.getMasterVolume());
+        records.put(position + MUSIC_VOLUME, (byte) user.getMusicVolume());
+        records.put(position + SFX_VOLUME, (byte) user.getSfxVolume());
+
+        int flags = FLAG_PRESENT;
+        if (user.getDisableLevelTimer())
+            flags |= FLAG_LEVEL_TIMER_DISABLED;
+        if (user.getDisableRunTimer())
+            flags |= FLAG_RUN_TIMER_DISABLED;
+        if (user.getUnlHealth())
+            flags |= FLAG_UNLIMITED_HEALTH;
+        records.put(position + FLAGS, (byte) flags);
+
+        if (isNew)
+            writeUsername(position, user.getUsername());
+        if (id >= size())
+            records.putInt(COUNT_OFFSET, id + 1);
+    }
+
+    /**
+     * Checks whether a user has a record
+     * @param userID the user's ID
+     * @return true if the user has a record, false otherwise
+     */
+    boolean contains(int userID) {
+        return userID >= 0 && userID < size() && (records.get(recordPosition(userID) + FLAGS) & FLAG_PRESENT) != 0;
+    }
+
+    /**
+     * Gets a user's username from the string heap
+     * @param userID the user's ID
+     * @return the username, or null if the user has no record
+     */
+    String getUsername(int userID) {
+        if (!contains(userID))
+            return null;
+        int position = recordPosition(userID);
+        byte[] name = new byte[records.getInt(position + NAME_LENGTH)];
+        heap.get(records.getInt(position + NAME_OFFSET), name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets a user's best score
+     * @param userID the user's ID
+     * @return the best score, or 0 if the user has no record
+     */
+    int getBestScore(int userID) {
+        return contains(userID) ? records.getInt(recordPosition(userID) + BEST_SCORE) : 0;
+    }
+
+    /**
+     * Gets a user's best time
+     * @param userID the user's ID
+     * @return the best time, or 0 if the user has no record
+     */
+    int getBestTime(int userID) {
+        return contains(userID) ? records.getInt(recordPosition(userID) + BEST_TIME) : 0;
+    }
+
+    /**
+     * Gets the number of games a user has played
+     * @param userID the user's ID
+     * @return the number of games, or 0 if the user has no record
+     */
+    int getLifetimeGames(int userID) {
+        return contains(userID) ? records.getInt(recordPosition(userID) + LIFETIME_GAMES) : 0;
+    }
+
+    /**
+     * Gets the most levels a user has cleared in one run
+     * @param userID the user's ID
+     * @return the most levels cleared, or 0 if the user has no record
+     */
+    int getMostLevelsCleared(int userID) {
+        return contains(userID) ? records.getInt(recordPosition(userID) + MOST_LEVELS_CLEARED) : 0;
+    }
+
+    /**
+     * Gets a user's total playtime
+     * @param userID the user's ID
+     * @return the total playtime, or 0 if the user has no record
+     */
+    int getTotalPlaytime(int userID) {
+        return contains(userID) ? records.getInt(recordPosition(userID) + TOTAL_PLAYTIME) : 0;
+    }
+
+    /**
+     * Writes every change made to the mapped files to the disk
+     */
+    void force() {
+        records.force();
+        heap.force();
+    }
+
+    /**
+     * Writes every change to the disk and closes the files
+     * @throws IOException if the files cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        force();
+        try {
+            recordChannel.close();
+        } finally {
+            heapChannel.close();
+        }
+    }
+
+    /**
+     * Gets the position of a user's record in the stats file
+     * @param userID the user's ID
+     * @return the position in bytes
+     */
+    private static int recordPosition(int userID) {
+        return HEADER_SIZE + userID * RECORD_SIZE;
+    }
+
+    /**
+     * Adds a username to the end of the string heap and points a record at it
+     * @param position the position of the record
+     * @param username the username
+     * @throws IOException if the string heap cannot be grown
+     */
+    private void writeUsername(int position, String username) throws IOException {
+        byte[] name = username.getBytes(StandardCharsets.UTF_8);
+        int heapEnd = records.getInt(HEAP_END_OFFSET);
+        ensureHeapCapacity(heapEnd + name.length);
+        heap.put(heapEnd, name);
+        records.putInt(position + NAME_OFFSET, heapEnd);
+        records.putInt(position + NAME_LENGTH, name.length);
+        records.putInt(HEAP_END_OFFSET, heapEnd + name.length);
+    }
+
+    /**
+     * Maps a larger stats file if there isn't room for a number of records
+     * @param recordCount the number of records needed
+     * @throws IOException if the file cannot be grown
+     */
+    private void ensureRecordCapacity(int recordCount) throws IOException {
+        long needed = HEADER_SIZE + (long) recordCount * RECORD_SIZE;
+        if (needed <= records.capacity())
+            return;
+        long size = records.capacity();
+        while (size < needed)
+            size = HEADER_SIZE + (size - HEADER_SIZE) * 2;
+        if (size > Integer.MAX_VALUE)
+            throw new IOException("Stats file is too large");
+        records.force();
+        records = recordChannel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    /**
+     * Maps a larger string heap if there isn't room for a number of bytes
+     * @param byteCount the number of bytes needed
+     * @throws IOException if the file cannot be grown
+     */
+    private void ensureHeapCapacity(int byteCount) throws IOException {
+        if (byteCount <= heap.capacity())
+            return;
+        long size = heap.capacity();
+        while (size < byteCount)
+            size *= 2;
+        if (size > Integer.MAX_VALUE)
+            throw new IOException("String heap is too large");
+        heap.force();
+        heap = heapChannel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+}
@@ -0,0 +1,128 @@
+package com.cs2212.cardbound.system;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An index of every username by the runs of three characters in it, so that the instructor's search bar finds every
+ * user whose username contains the search without checking every username.
+ * <br><br>
+ * Each username is lowercased and split into trigrams, the runs of three characters in it, and each trigram keeps a list
+ * of the users whose username has it. A username that contains the search must have every trigram of the search, so
+ * only the users on the shortest of those lists are checked, which is usually a handful however many users there are.
+ * Searches shorter than a trigram match so many users that they check every username instead.
+ * <br><br>
+ * Users are added in the order they were created, so every list stays in that order without being sorted. The index is
+ * built when the save data loads and added to as users are created on the JavaFX thread, while searches run on a
+ * background thread, so every method is synchronized.
+ * @version 1.0
+ */
+final class UsernameIndex {
+
+    /**
+     * The number of characters in each indexed run
+     */
+    private static final int GRAM_LENGTH = 3;
+
+    /**
+     * A list of users in the order they were added, as their positions in the index
+     */
+    private static final class Postings {
+        private int[] positions = new int[4];
+        private int size;
+
+        private void add(int position) {
+            // A username that has the same trigram twice is only listed once
+            if (size > 0 && positions[size - 1] == position)
+                return;
+            if (size == positions.length)
+                positions = Arrays.copyOf(positions, size * 2);
+            positions[size++] = position;
+        }
+    }
+
+    /**
+     * The ID of every user, by position
+     */
+    private int[] userIDs = new int[16];
+    /**
+     * The lowercased username of every user, by position
+     */
+    private String[] usernames = new String[16];
+    /**
+     * The number of users
+     */
+    private int size;
+    /**
+     * The users with each trigram
+     */
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    /**
+     * Builds the index of every user's username.
+     * @param usernames the usernames by user ID, in the order the users were created
+     * @return the index
+     */
+    static UsernameIndex of(Map<Integer, String> usernames) {
+        UsernameIndex index = new UsernameIndex();
+        usernames.forEach(index::add);
+        return index;
+    }
+
+    /**
+     * Adds a user.
+     * @param userID the user's ID
+     * @param username the user's username
+     */
+    synchronized void add(int userID, String username) {
+        if (size == userIDs.length) {
+            userIDs = Arrays.copyOf(userIDs, size * 2);
+            usernames = Arrays.copyOf(usernames, size * 2);
+        }
+        String lowerCase = username.toLowerCase();
+        userIDs[size] = userID;
+        usernames[size] = lowerCase;
+        for (int i = 0; i + GRAM_LENGTH <= lowerCase.length(); i++)
+            postings.computeIfAbsent(lowerCase.substring(i, i + GRAM_LENGTH), gram -> new Postings()).add(size);
+        size++;
+    }
+
+    /**
+     * Finds every user whose username contains a search, ignoring case.
+     * @param search the search, or an empty string to find every user
+     * @return the IDs of the users found, in the order they were created
+     */
+    synchronized int[] search(String search) {
+        String lowerCase = search.toLowerCase();
+        if (lowerCase.isEmpty())
+            return Arrays.copyOf(userIDs, size);
+        if (lowerCase.length() < GRAM_LENGTH) {
+            int[] found = new int[size];
+            int count = 0;
+            for (int position = 0; position < size; position++) {
+                if (usernames[position].contains(lowerCase))
+                    found[count++] = userIDs[position];
+            }
+            return Arrays.copyOf(found, count);
+        }
+
+        // Every username that matches has every trigram of the search, so only the users with the rarest one are checked
+        Postings rarest = null;
+        for (int i = 0; i + GRAM_LENGTH <= lowerCase.length(); i++) {
+            Postings gramPostings = postings.get(lowerCase.substring(i, i + GRAM_LENGTH));
+            if (gramPostings == null)
+                return new int[0];
+            if (rarest == null || gramPostings.size < rarest.size)
+                rarest = gramPostings;
+        }
+        int[] found = new int[rarest.size];
+        int count = 0;
+        for (int i = 0; i < rarest.size; i++) {
+            int position = rarest.positions[i];
+            if (usernames[position].contains(lowerCase))
+                found[count++] = userIDs[position];
+        }
+        return Arrays.copyOf(found, count);
+    }
+}
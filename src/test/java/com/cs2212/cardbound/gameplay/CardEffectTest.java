@@ -0,0 +1,111 @@
+package com.cs2212.cardbound.gameplay;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Checks that compiled card effects give exactly what the original card math did.
+ * @version 1.0
+ */
+class CardEffectTest {
+
+    /**
+     * The highest attack value each effect is checked with
+     */
+    private static final int MAX_ATTACK = 500;
+
+    /**
+     * Applies a modifier equation the way CardLogic did before effects were compiled: digits and "x" are joined into
+     * each operand as text, and only the results of operators are totalled.
+     * @param equation the modifier equation
+     * @param x the attack value of the damage card
+     * @return the modified attack value
+     */
+    private static int baseline(String equation, int x) {
+        List<String> operatorQueue = new ArrayList<>();
+        List<Float> operandQueue = new ArrayList<>();
+
+        String currentNumber = "";
+        for (int j = 0; j < equation.length(); j++) {
+            String currentCharacter = String.valueOf(equation.charAt(j));
+            if (currentCharacter.equals("*") || currentCharacter.equals("+") || currentCharacter.equals("%")) {
+                operatorQueue.add(currentCharacter);
+                operandQueue.add(Float.parseFloat(currentNumber));
+                currentNumber = "";
+            } else if (currentCharacter.equals("x")) {
+                currentNumber = currentNumber + x;
+            } else {
+                currentNumber = currentNumber + currentCharacter;
+            }
+        }
+        operandQueue.add(Float.parseFloat(currentNumber));
+
+        float currentTotal = 0;
+        for (int i = 0; i < operatorQueue.size(); i++) {
+            float left = i == 0 ? operandQueue.get(i) : currentTotal;
+            float right = operandQueue.get(i + 1);
+            switch (operatorQueue.get(i)) {
+                case "+" -> currentTotal = left + right;
+                case "*" -> currentTotal = left * right;
+                default -> currentTotal = (float) ((int) left % (int) right);
+            }
+        }
+        return (int) currentTotal;
+    }
+
+    /**
+     * Reads the effect equation of every modifier card in the shipped card data
+     * @return the equations
+     * @throws IOException if the card data cannot be read
+     */
+    private static List<String> shippedEquations() throws IOException {
+        List<String> equations = new ArrayList<>();
+        try (InputStream in = CardEffectTest.class.getResourceAsStream("/com/cs2212/cardbound/CardData.CSV");
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] cardData = line.split(",");
+                if (cardData.length > 4 && cardData[2].trim().equalsIgnoreCase("modifier"))
+                    equations.add(cardData[4].trim());
+            }
+        }
+        return equations;
+    }
+
+    @Test
+    void everyShippedEffectMatchesTheOriginalMath() throws IOException {
+        List<String> equations = shippedEquations();
+        assertFalse(equations.isEmpty(), "the card data has no modifier cards");
+        for (String equation : equations) {
+            CardEffect effect = CardEffect.compile(equation);
+            for (int x = 0; x <= MAX_ATTACK; x++)
+                assertEquals(baseline(equation, x), effect.apply(x), equation + " with x = " + x);
+        }
+    }
+
+    @Test
+    void leftToRightOrderIsKept() {
+        for (String equation : new String[] {"x+2*3", "x*2+1", "7%x+x", "x%4*2+1", "0.5*x+0.5"}) {
+            CardEffect effect = CardEffect.compile(equation);
+            for (int x = 1; x <= MAX_ATTACK; x++)
+                assertEquals(baseline(equation, x), effect.apply(x), equation + " with x = " + x);
+        }
+    }
+
+    @Test
+    void equationWithoutAnOperatorGivesZero() {
+        assertEquals(0, CardEffect.compile("x").apply(12));
+        assertEquals(0, CardEffect.compile("5").apply(12));
+        assertEquals(baseline("x", 12), CardEffect.compile("x").apply(12));
+    }
+}
@@ -0,0 +1,91 @@
+package com.cs2212.cardbound.gameplay;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that card pools draw the shipped cards the same way the fixed id ranges did before rarities.
+ * @version 1.0
+ */
+class CardPoolTest {
+
+    /**
+     * The number of cards drawn from each pool
+     */
+    private static final int DRAWS = 1_000_000;
+
+    @Test
+    void shippedCardsHaveEqualWeightsInEveryTier() {
+        CardCatalog catalog = CardCatalog.getInstance();
+        for (int tier = 0; tier <= RarityProfile.MAX_TIER; tier++) {
+            RarityProfile profile = RarityProfile.forTier(tier);
+            double attackWeight = -1;
+            double modifierWeight = -1;
+            for (int id = 1; id <= catalog.size(); id++) {
+                CardSpec card = catalog.get(id);
+                double weight = profile.weightOf(card);
+                if (card.isAttack()) {
+                    if (attackWeight < 0)
+                        attackWeight = weight;
+                    assertEquals(attackWeight, weight, card.getTitle() + " in tier " + tier);
+                } else if (card.isModifier()) {
+                    if (modifierWeight < 0)
+                        modifierWeight = weight;
+                    assertEquals(modifierWeight, weight, card.getTitle() + " in tier " + tier);
+                }
+            }
+        }
+    }
+
+    @Test
+    void levelOneDrawsAreUniformWithinEachPool() {
+        CardCatalog catalog = CardCatalog.getInstance();
+        CardPool pool = catalog.getPool(1);
+        SplittableRandom random = new SplittableRandom(10);
+
+        for (int choice : new int[] {CardPool.ATTACK_POOL, CardPool.MODIFIER_POOL}) {
+            int[] counts = new int[catalog.size() + 1];
+            for (int i = 0; i < DRAWS; i++)
+                counts[pool.draw(choice, random)]++;
+
+            int cards = 0;
+            for (int id = 1; id <= catalog.size(); id++) {
+                CardSpec card = catalog.get(id);
+                if (choice == CardPool.ATTACK_POOL ? card.isAttack() : card.isModifier())
+                    cards++;
+                else
+                    assertEquals(0, counts[id], card.getTitle() + " was drawn from the wrong pool");
+            }
+
+            double expected = (double) DRAWS / cards;
+            for (int id = 1; id <= catalog.size(); id++) {
+                if (counts[id] > 0)
+                    assertTrue(Math.abs(counts[id] - expected) < expected * 0.02, catalog.get(id).getTitle() + " was drawn " + counts[id] + " times");
+            }
+        }
+    }
+
+    @Test
+    void rarerCardsAreDrawnLessOften() throws IOException {
+        String cardData = "Jab, Deal ? damage., attack, jab.png, 1, 1\n"
+                + "Haymaker, Deal ? damage., attack, haymaker.png, 9, 1, , rare\n"
+                + "Double Up, Double your next attack's damage., modifier, double_up.png, 2*x, 1\n";
+        CardCatalog catalog = CardCatalog.load(new ByteArrayInputStream(cardData.getBytes(StandardCharsets.UTF_8)));
+        SplittableRandom random = new SplittableRandom(3);
+
+        int[] counts = new int[catalog.size() + 1];
+        CardPool pool = catalog.getPool(1);
+        for (int i = 0; i < DRAWS; i++)
+            counts[pool.draw(CardPool.ATTACK_POOL, random)]++;
+
+        double rareShare = CardRarity.RARE.getBaseWeight() / (CardRarity.RARE.getBaseWeight() + CardRarity.COMMON.getBaseWeight());
+        assertEquals(rareShare, (double) counts[2] / DRAWS, 0.005);
+    }
+}
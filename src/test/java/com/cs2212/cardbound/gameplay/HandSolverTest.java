@@ -0,0 +1,125 @@
+package com.cs2212.cardbound.gameplay;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks solved hands against the damage the Gameplay scene would deal for the same cards.
+ * @version 1.0
+ */
+class HandSolverTest {
+
+    /**
+     * The number of cards in a hand
+     */
+    private static final int HAND_SIZE = 4;
+    /**
+     * The number of random hands each test deals
+     */
+    private static final int HANDS = 20_000;
+
+    /**
+     * Deals a random hand from the whole catalog
+     * @param catalog the cards to deal from
+     * @param cardMultiplier the card multiplier to deal the cards at
+     * @param random the random number generator to draw from
+     * @return the dealt cards
+     */
+    private static CardInstance[] deal(CardCatalog catalog, int cardMultiplier, SplittableRandom random) {
+        CardInstance[] hand = new CardInstance[HAND_SIZE];
+        for (int i = 0; i < HAND_SIZE; i++)
+            hand[i] = new CardInstance(catalog.get(random.nextInt(1, catalog.size() + 1)), cardMultiplier);
+        return hand;
+    }
+
+    /**
+     * Finds every damage total a hand can reach by calculating each pair directly
+     * @param hand the dealt cards
+     * @return the distinct totals, in ascending order
+     */
+    private static int[] reachableTotals(CardInstance[] hand) {
+        TreeSet<Integer> totals = new TreeSet<>();
+        for (int i = 0; i < hand.length; i++) {
+            for (int j = 0; j < hand.length; j++) {
+                if (i != j)
+                    totals.add(CardLogic.calculateAttackDamage(hand[i], hand[j]));
+            }
+        }
+        return totals.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Test
+    void exactPairDealsTheEnemyHealth() {
+        CardCatalog catalog = CardCatalog.getInstance();
+        SplittableRandom random = new SplittableRandom(2212);
+        for (int cardMultiplier = 1; cardMultiplier <= 3; cardMultiplier++) {
+            DamageTable damageTable = new DamageTable(catalog, cardMultiplier);
+            for (int n = 0; n < HANDS; n++) {
+                CardInstance[] hand = deal(catalog, cardMultiplier, random);
+                // The enemy's health is set from the first two cards, the same as the Gameplay scene
+                int enemyHealth = CardLogic.calculateAttackDamage(hand[0], hand[1]);
+
+                HandSolver solved = HandSolver.solve(damageTable, hand, enemyHealth);
+                assertTrue(solved.isSolvable());
+                assertNotEquals(solved.getFirst(), solved.getSecond());
+                assertEquals(enemyHealth, CardLogic.calculateAttackDamage(hand[solved.getFirst()], hand[solved.getSecond()]));
+            }
+        }
+    }
+
+    @Test
+    void reachableTotalsMatchEveryPair() {
+        CardCatalog catalog = CardCatalog.getInstance();
+        DamageTable damageTable = new DamageTable(catalog, 1);
+        SplittableRandom random = new SplittableRandom(4);
+        for (int n = 0; n < HANDS; n++) {
+            CardInstance[] hand = deal(catalog, 1, random);
+            int[] expected = reachableTotals(hand);
+
+            HandSolver solved = HandSolver.solve(damageTable, hand, expected[expected.length - 1]);
+            assertArrayEquals(expected, solved.getReachableTotals());
+            assertEquals(expected[expected.length - 1], solved.getMaxTotal());
+        }
+    }
+
+    @Test
+    void unreachableHealthHasNoPair() {
+        CardCatalog catalog = CardCatalog.getInstance();
+        DamageTable damageTable = new DamageTable(catalog, 1);
+        SplittableRandom random = new SplittableRandom(7);
+        for (int n = 0; n < HANDS; n++) {
+            CardInstance[] hand = deal(catalog, 1, random);
+            int[] totals = reachableTotals(hand);
+            int enemyHealth = totals[totals.length - 1] + 1;
+
+            HandSolver solved = HandSolver.solve(damageTable, hand, enemyHealth);
+            assertFalse(solved.isSolvable());
+            assertFalse(solved.canReach(enemyHealth));
+            assertEquals(-1, solved.getFirst());
+            assertEquals(-1, solved.getSecond());
+        }
+    }
+
+    @Test
+    void cardsFromAnotherMultiplierAreCalculatedDirectly() {
+        CardCatalog catalog = CardCatalog.getInstance();
+        DamageTable damageTable = new DamageTable(catalog, 1);
+        SplittableRandom random = new SplittableRandom(11);
+        for (int n = 0; n < HANDS; n++) {
+            CardInstance[] hand = deal(catalog, 2, random);
+            int enemyHealth = CardLogic.calculateAttackDamage(hand[2], hand[3]);
+
+            HandSolver solved = HandSolver.solve(damageTable, hand, enemyHealth);
+            assertTrue(solved.isSolvable());
+            assertEquals(enemyHealth, CardLogic.calculateAttackDamage(hand[solved.getFirst()], hand[solved.getSecond()]));
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.cs2212.cardbound.system;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the rank index against a plain sorted list of the same users, through enough adds, moves and removals to
+ * rotate the tree every way.
+ * @version 1.0
+ */
+class RankIndexTest {
+
+    /**
+     * A user's place on the leaderboard, as the oracle keeps it
+     */
+    private record Entry(int userID, int score, int time) {
+    }
+
+    /**
+     * The leaderboard order: highest score, then lowest time, then lowest user ID
+     */
+    private static final Comparator<Entry> ORDER = Comparator.comparingInt((Entry entry) -> -entry.score())
+            .thenComparingInt(Entry::time)
+            .thenComparingInt(Entry::userID);
+
+    private final RankIndex index = new RankIndex();
+    private final Map<Integer, Entry> entries = new HashMap<>();
+
+    private void update(int userID, int score, int time) {
+        index.update(userID, score, time);
+        entries.put(userID, new Entry(userID, score, time));
+    }
+
+    private void remove(int userID) {
+        index.remove(userID);
+        entries.remove(userID);
+    }
+
+    /**
+     * Checks every rank, every user and a set of windows against the users sorted into a list
+     * @param random the random number generator picking the windows
+     */
+    private void assertMatchesOracle(SplittableRandom random) {
+        List<Entry> sorted = new ArrayList<>(entries.values());
+        sorted.sort(ORDER);
+        assertEquals(sorted.size(), index.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(i + 1, index.rankOf(sorted.get(i).userID()), "rank of user " + sorted.get(i).userID());
+            assertEquals(sorted.get(i).userID(), index.userAt(i + 1), "user at rank " + (i + 1));
+        }
+        assertArrayEquals(ids(sorted, 1, sorted.size()), index.window(1, sorted.size()));
+        for (int i = 0; i < 5 && !sorted.isEmpty(); i++) {
+            int fromRank = 1 + random.nextInt(sorted.size());
+            int count = 1 + random.nextInt(20);
+            assertArrayEquals(ids(sorted, fromRank, count), index.window(fromRank, count), "window " + fromRank + "+" + count);
+        }
+    }
+
+    private static int[] ids(List<Entry> sorted, int fromRank, int count) {
+        int to = Math.min(sorted.size(), fromRank - 1 + count);
+        return sorted.subList(fromRank - 1, to).stream().mapToInt(Entry::userID).toArray();
+    }
+
+    @Test
+    void ascendingAndDescendingInsertsStayInOrder() {
+        SplittableRandom random = new SplittableRandom(1);
+        // Rising scores add every user at the top, and falling scores at the bottom, rotating the tree both ways
+        for (int i = 0; i < 200; i++)
+            update(i, i, 0);
+        assertMatchesOracle(random);
+        for (int i = 200; i < 400; i++)
+            update(i, -i, 0);
+        assertMatchesOracle(random);
+    }
+
+    @Test
+    void tiesAreBrokenByTimeThenUserID() {
+        update(5, 100, 30);
+        update(3, 100, 30);
+        update(9, 100, 20);
+        update(1, 90, 10);
+        assertArrayEquals(new int[] {9, 3, 5, 1}, index.window(1, 10));
+    }
+
+    @Test
+    void randomUpdatesAndRemovalsMatchASortedList() {
+        SplittableRandom random = new SplittableRandom(2212);
+        for (int step = 0; step < 3000; step++) {
+            int userID = random.nextInt(300);
+            if (random.nextInt(5) == 0) {
+                remove(userID);
+            } else {
+                // A small range of scores and times makes plenty of ties
+                update(userID, random.nextInt(50), random.nextInt(10));
+            }
+            if (step % 50 == 0)
+                assertMatchesOracle(random);
+        }
+        assertMatchesOracle(random);
+
+        // Removing everyone, one at a time, leaves an empty index
+        for (int userID : new ArrayList<>(entries.keySet())) {
+            remove(userID);
+            if (entries.size() % 25 == 0)
+                assertMatchesOracle(random);
+        }
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void ranksOutsideTheIndexAreEmpty() {
+        update(1, 10, 0);
+        update(2, 20, 0);
+        assertEquals(0, index.rankOf(3));
+        assertEquals(-1, index.userAt(3));
+        assertEquals(-1, index.userAt(0));
+        assertArrayEquals(new int[0], index.window(0, 5));
+        assertArrayEquals(new int[0], index.window(3, 5));
+        assertArrayEquals(new int[0], index.window(1, 0));
+        assertArrayEquals(new int[] {1}, index.window(2, 5));
+
+        // Removing a user that isn't there changes nothing
+        index.remove(3);
+        assertEquals(2, index.size());
+    }
+}
@@ -0,0 +1,169 @@
+package com.cs2212.cardbound.system;
+
+import com.cs2212.cardbound.gameplay.GameSave;
+import com.cs2212.cardbound.gameplay.User;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the save journal replays every whole line, survives lines damaged by a crash, and folds into the save
+ * files without losing anything.
+ * @version 1.0
+ */
+class SaveJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private final Gson gson = new Gson();
+    private Path journalFile;
+    private SlotFile userFile;
+    private SlotFile gameSaveFile;
+    private SaveJournal journal;
+
+    @BeforeEach
+    void setUp() {
+        journalFile = directory.resolve("SaveJournal.log");
+        userFile = new SlotFile(directory.resolve("SaveData.json"));
+        gameSaveFile = new SlotFile(directory.resolve("GameSaveData.json"));
+        journal = new SaveJournal(gson, journalFile, userFile, gameSaveFile);
+    }
+
+    /**
+     * Makes a user with a best score, so versions of the same user can be told apart
+     * @param userID the user's ID
+     * @param bestScore the user's best score
+     * @return the user
+     */
+    private static User user(int userID, int bestScore) {
+        User user = new User("user" + userID, "password", userID);
+        user.setBestScore(bestScore);
+        return user;
+    }
+
+    /**
+     * Writes lines straight to the journal file, the way they would be after the save worker appended them
+     * @param lines the lines
+     * @throws IOException if the journal cannot be written
+     */
+    private void write(String lines) throws IOException {
+        Files.writeString(journalFile, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Replays the journal, keeping the last version of each user
+     * @return each user's best score, by user ID
+     * @throws IOException if the journal cannot be read
+     */
+    private Map<Integer, Integer> replayScores() throws IOException {
+        Map<Integer, Integer> scores = new LinkedHashMap<>();
+        journal.replay(user -> scores.put(user.getUserID(), user.getBestScore()), gameSave -> {});
+        return scores;
+    }
+
+    @Test
+    void laterLinesReplaceEarlierVersions() throws IOException {
+        write(journal.entry(user(1, 10)) + journal.entry(user(2, 20)) + journal.entry(user(1, 30)));
+
+        List<User> users = new ArrayList<>();
+        assertEquals(3, journal.replay(users::add, gameSave -> {}));
+        assertEquals(3, users.size());
+        assertEquals(Map.of(1, 30, 2, 20), replayScores());
+    }
+
+    @Test
+    void truncatedFinalLineIsCut() throws IOException {
+        String whole = journal.entry(user(1, 10)) + journal.entry(user(2, 20));
+        String torn = journal.entry(user(3, 30));
+        write(whole + torn.substring(0, torn.length() / 2));
+
+        journal.repair();
+        assertEquals(whole, Files.readString(journalFile, StandardCharsets.UTF_8));
+        assertEquals(Map.of(1, 10, 2, 20), replayScores());
+
+        // The next line added starts on a line of its own instead of being joined to the torn one
+        write(journal.entry(user(3, 40)));
+        assertEquals(Map.of(1, 10, 2, 20, 3, 40), replayScores());
+    }
+
+    @Test
+    void damagedMiddleLineIsSkipped() throws IOException {
+        String damaged = journal.entry(user(2, 20));
+        write(journal.entry(user(1, 10)) + damaged.substring(0, damaged.length() / 2) + "\n" + journal.entry(user(3, 30)));
+
+        journal.repair();
+        assertEquals(2, journal.replay(user -> {}, gameSave -> {}));
+        assertEquals(Map.of(1, 10, 3, 30), replayScores());
+    }
+
+    @Test
+    void replayAfterCompactionFindsEveryRecord() throws IOException {
+        GameSave gameSave = new GameSave(2);
+        gameSave.setGameSave(2, 4, 300, "00:01:00", 12, null);
+        journal.append(journal.entry(user(1, 10)) + journal.entry(user(2, 20)) + journal.entry(gameSave));
+        journal.requestCompaction();
+        SaveWorker.flush();
+
+        assertEquals(0, Files.size(journalFile));
+        assertEquals(0, journal.replay(user -> {}, save -> {}));
+        assertEquals(List.of(1, 2), readUsers().stream().map(User::getUserID).toList());
+
+        // Changes made after the compaction are replayed over the compacted files, and fold into them again
+        journal.append(journal.entry(user(1, 50)) + journal.entry(user(3, 30)));
+        SaveWorker.flush();
+        assertEquals(Map.of(1, 50, 3, 30), replayScores());
+
+        journal.requestCompaction();
+        SaveWorker.flush();
+        List<User> users = readUsers();
+        assertEquals(List.of(1, 2, 3), users.stream().map(User::getUserID).toList());
+        assertEquals(50, users.get(0).getBestScore());
+        assertTrue(replayScores().isEmpty());
+
+        try (Reader reader = gameSaveFile.openReader()) {
+            List<GameSave> saves = gson.fromJson(reader, new TypeToken<List<GameSave>>() {}.getType());
+            assertEquals(1, saves.size());
+            assertEquals(300, saves.get(0).getScore());
+        }
+    }
+
+    @Test
+    void linesThatCannotBeWrittenAreHandedBack() throws IOException {
+        // A directory in place of the journal makes every append fail
+        Files.createDirectories(journalFile);
+        String lines = journal.entry(user(1, 10)) + journal.entry(user(2, 20));
+        journal.append(lines);
+        SaveWorker.flush();
+
+        assertEquals("\n" + lines, journal.takeUnwritten());
+        assertEquals("", journal.takeUnwritten());
+    }
+
+    /**
+     * Reads every user from the compacted user save file
+     * @return the users, in file order
+     * @throws IOException if the file cannot be read
+     */
+    private List<User> readUsers() throws IOException {
+        try (Reader reader = userFile.openReader()) {
+            return gson.fromJson(reader, new TypeToken<List<User>>() {}.getType());
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.cs2212.cardbound.system;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks that a slot file reads the newest valid slot, and never a slot that was torn or damaged.
+ * @version 1.0
+ */
+class SlotFileTest {
+
+    @TempDir
+    Path directory;
+
+    private Path legacyFile;
+    private Path slotA;
+    private Path slotB;
+    private Path headerFile;
+
+    @BeforeEach
+    void setUp() {
+        legacyFile = directory.resolve("SaveData.json");
+        slotA = directory.resolve("SaveData.json.a");
+        slotB = directory.resolve("SaveData.json.b");
+        headerFile = directory.resolve("SaveData.json.head");
+    }
+
+    /**
+     * Reads the contents of a save file, the way a freshly started game would
+     * @return the contents
+     * @throws IOException if the save file cannot be read
+     */
+    private String readFresh() throws IOException {
+        try (InputStream in = new SlotFile(legacyFile).openStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Writes two versions of the save file, leaving the first in slot a and the second in slot b
+     * @throws IOException if the save file cannot be written
+     */
+    private void writeTwoVersions() throws IOException {
+        SlotFile file = new SlotFile(legacyFile);
+        file.write("first");
+        file.write("second");
+    }
+
+    @Test
+    void originalFileIsReadUntilASlotIsWritten() throws IOException {
+        Files.writeString(legacyFile, "legacy");
+        assertEquals("legacy", readFresh());
+        assertEquals(0, new SlotFile(legacyFile).getGeneration());
+
+        new SlotFile(legacyFile).write("slotted");
+        assertEquals("slotted", readFresh());
+    }
+
+    @Test
+    void newestSlotIsRead() throws IOException {
+        writeTwoVersions();
+        SlotFile file = new SlotFile(legacyFile);
+        assertEquals("second", readFresh());
+        assertEquals(2, file.getGeneration());
+
+        // A third write goes back to slot a, and is the one read
+        file.write("third");
+        assertEquals("third", readFresh());
+        assertEquals(3, new SlotFile(legacyFile).getGeneration());
+    }
+
+    @Test
+    void newestValidSlotIsReadWithoutTheHeader() throws IOException {
+        writeTwoVersions();
+        Files.delete(headerFile);
+        assertEquals("second", readFresh());
+    }
+
+    @Test
+    void tornSlotFallsBackToTheOtherSlot() throws IOException {
+        writeTwoVersions();
+        // A crash part way through writing slot b leaves it shorter than its footer says
+        byte[] bytes = Files.readAllBytes(slotB);
+        Files.write(slotB, Arrays.copyOf(bytes, bytes.length - 5));
+        assertEquals("first", readFresh());
+        assertEquals(1, new SlotFile(legacyFile).getGeneration());
+    }
+
+    @Test
+    void slotWithABadChecksumFallsBackToTheOtherSlot() throws IOException {
+        writeTwoVersions();
+        byte[] bytes = Files.readAllBytes(slotB);
+        bytes[0] ^= 1;
+        Files.write(slotB, bytes);
+        assertEquals("first", readFresh());
+    }
+
+    @Test
+    void staleHeaderFallsBackToTheNewestValidSlot() throws IOException {
+        writeTwoVersions();
+        // Point the header back at slot a, but with slot b's generation, as if slot a were overwritten since
+        byte[] header = Files.readAllBytes(headerFile);
+        header[7] = 0;
+        Files.write(headerFile, header);
+        assertEquals("second", readFresh());
+    }
+
+    @Test
+    void noValidSlotMeansNothingToRead() throws IOException {
+        new SlotFile(legacyFile).write("only");
+        Files.write(slotA, new byte[] {1, 2, 3});
+        assertFalse(new SlotFile(legacyFile).exists());
+    }
+
+    @Test
+    void partsAreOnlyReadFromTheGenerationTheyWereFoundIn() throws IOException {
+        SlotFile file = new SlotFile(legacyFile);
+        file.write("hello world");
+        long generation = file.getGeneration();
+        byte[][] parts = file.read(generation, new long[] {6}, new int[] {5});
+        assertArrayEquals("world".getBytes(StandardCharsets.UTF_8), parts[0]);
+
+        file.write("goodbye world");
+        assertNull(file.read(generation, new long[] {6}, new int[] {5}));
+    }
+}